@@ -0,0 +1,354 @@
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ConcurrentTinyLfuCache
+ *
+ * Thread-safe, capacity-bounded cache with the W-TinyLFU eviction policy
+ * (same bounded contract as LRUCacche, except get returns null on a miss).
+ *
+ * Why not a synchronized LRUCacche?
+ *  In an access-ordered LinkedHashMap every get() relinks the entry, so every read needs the lock.
+ *
+ * Approach:
+ *  - Data lives in a ConcurrentHashMap; get() is a lock-free map lookup.
+ *  - The read is *recorded* into a striped, lossy ring buffer. Whoever fills a stripe past half
+ *    tries the eviction lock and replays buffered reads into the policy in one batch.
+ *    (Dropping a read under heavy contention only makes the policy slightly less precise.)
+ *  - Inserts go through the lock: they update the policy, evict, and drain pending reads.
+ *  - Policy (W-TinyLFU):
+ *      window LRU (~1% of capacity)  ->  main SLRU = probation (20%) + protected (80%)
+ *    A key evicted from the window competes with the probation LRU victim; the one with the higher
+ *    estimated frequency (4-bit count-min sketch with periodic halving) stays.
+ *    This admits recent bursts via the window, but keeps one-hit wonders from flushing hot keys.
+ *
+ * Time Complexity:  get O(1) lock-free; put O(1) amortized under the eviction lock
+ * Space Complexity: O(capacity) entries + capacity * 8 bytes of sketch
+ */
+public class ConcurrentTinyLfuCache<K, V> {
+
+    private static final int WINDOW = 0, PROBATION = 1, PROTECTED = 2, NONE = 3;
+
+    static final class Node<K, V> {
+        final K key;
+        volatile V value;
+        Node<K, V> prev, next;          // guarded by evictionLock
+        int queue = NONE;               // guarded by evictionLock
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private final int capacity;
+    private final int windowMax, protectedMax;
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final ReadBuffer<K, V>[] readBuffers;
+    private final FrequencySketch sketch;
+
+    // Policy queues (circular sentinels), guarded by evictionLock.
+    private final Node<K, V> window = sentinel(), probation = sentinel(), protectedQ = sentinel();
+    private int windowSize, probationSize, protectedSize;
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentTinyLfuCache(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+        this.windowMax = Math.max(1, capacity / 100);
+        this.protectedMax = (int) ((capacity - windowMax) * 0.8);
+        this.data = new ConcurrentHashMap<>(capacity * 4 / 3 + 1);
+        this.sketch = new FrequencySketch(capacity);
+        int stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1;
+        this.readBuffers = (ReadBuffer<K, V>[]) new ReadBuffer<?, ?>[stripes];
+        for (int i = 0; i < stripes; i++) readBuffers[i] = new ReadBuffer<>();
+    }
+
+    public V get(K key) {
+        Node<K, V> n = data.get(key);
+        if (n == null) return null;
+        recordRead(n);
+        return n.value;
+    }
+
+    public void put(K key, V value) {
+        Node<K, V> n = data.get(key);
+        if (n != null) {                // update in place: same cost as a read
+            n.value = value;
+            // If eviction or remove() unlinked the node meanwhile, the write went nowhere: insert under the lock.
+            if (data.get(key) == n) {
+                recordRead(n);
+                return;
+            }
+        }
+        evictionLock.lock();
+        try {
+            n = data.get(key);
+            if (n != null) {
+                n.value = value;
+                onAccess(n);
+            } else {
+                n = new Node<>(key, value);
+                data.put(key, n);
+                sketch.increment(key.hashCode());
+                linkLast(window, n, WINDOW);
+                windowSize++;
+                evict();
+            }
+            drainReadBuffers();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public V remove(K key) {
+        evictionLock.lock();
+        try {
+            Node<K, V> n = data.remove(key);
+            if (n == null) return null;
+            unlinkFromQueue(n);
+            return n.value;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // ------------------- read buffering -------------------
+
+    private void recordRead(Node<K, V> n) {
+        ReadBuffer<K, V> buf = readBuffers[(int) mix(Thread.currentThread().threadId()) & (readBuffers.length - 1)];
+        if (buf.offer(n) >= ReadBuffer.SIZE / 2 && evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffers() {
+        for (ReadBuffer<K, V> b : readBuffers) b.drainTo(this);
+    }
+
+    // Lock-free multi-producer ring; the single consumer is whoever holds evictionLock.
+    static final class ReadBuffer<K, V> {
+        static final int SIZE = 16;
+        final AtomicReferenceArray<Node<K, V>> slots = new AtomicReferenceArray<>(SIZE);
+        final AtomicLong tail = new AtomicLong();
+        volatile long head;
+
+        // Returns the number of pending reads (SIZE if the read was dropped).
+        int offer(Node<K, V> n) {
+            long h = head, t = tail.get();
+            if (t - h >= SIZE) return SIZE;
+            if (!tail.compareAndSet(t, t + 1)) return (int) (t - h);   // contended: drop, it's only a hint
+            slots.lazySet((int) (t & (SIZE - 1)), n);
+            return (int) (t + 1 - h);
+        }
+
+        void drainTo(ConcurrentTinyLfuCache<K, V> cache) {
+            long h = head, t = tail.get();
+            for (; h < t; h++) {
+                int i = (int) (h & (SIZE - 1));
+                Node<K, V> n = slots.get(i);
+                if (n == null) break;       // producer claimed the slot but has not published yet
+                slots.lazySet(i, null);
+                cache.onAccess(n);
+            }
+            head = h;
+        }
+    }
+
+    // ------------------- policy (guarded by evictionLock) -------------------
+
+    private void onAccess(Node<K, V> n) {
+        sketch.increment(n.key.hashCode());
+        switch (n.queue) {
+            case WINDOW:
+                moveToLast(window, n);
+                break;
+            case PROBATION:                 // second hit: promote, demoting protected overflow
+                unlink(n);
+                probationSize--;
+                linkLast(protectedQ, n, PROTECTED);
+                protectedSize++;
+                while (protectedSize > protectedMax) {
+                    Node<K, V> d = protectedQ.next;
+                    unlink(d);
+                    protectedSize--;
+                    linkLast(probation, d, PROBATION);
+                    probationSize++;
+                }
+                break;
+            case PROTECTED:
+                moveToLast(protectedQ, n);
+                break;
+            default:                        // already evicted/removed: stale buffered read
+        }
+    }
+
+    private void evict() {
+        // Window overflow: its LRU is the candidate. It enters the main space freely while there is room,
+        // otherwise it competes with the main victim (probation LRU, else protected LRU) by frequency.
+        while (windowSize > windowMax) {
+            Node<K, V> candidate = window.next;
+            unlinkFromQueue(candidate);
+            if (windowSize + probationSize + protectedSize < capacity) {
+                linkLast(probation, candidate, PROBATION);
+                probationSize++;
+                continue;
+            }
+            Node<K, V> victim = probation.next != probation ? probation.next : protectedQ.next;
+            if (victim != protectedQ
+                    && sketch.frequency(candidate.key.hashCode()) > sketch.frequency(victim.key.hashCode())) {
+                unlinkFromQueue(victim);
+                data.remove(victim.key, victim);
+                linkLast(probation, candidate, PROBATION);
+                probationSize++;
+            } else {
+                data.remove(candidate.key, candidate);
+            }
+        }
+        // Over capacity without window overflow (the window shrank through removals): evict main LRU first.
+        while (windowSize + probationSize + protectedSize > capacity) {
+            Node<K, V> evicted = probation.next != probation ? probation.next
+                    : protectedQ.next != protectedQ ? protectedQ.next : window.next;
+            unlinkFromQueue(evicted);
+            data.remove(evicted.key, evicted);
+        }
+    }
+
+    private void unlinkFromQueue(Node<K, V> n) {
+        switch (n.queue) {
+            case WINDOW: windowSize--; break;
+            case PROBATION: probationSize--; break;
+            case PROTECTED: protectedSize--; break;
+            default: return;
+        }
+        unlink(n);
+        n.queue = NONE;
+    }
+
+    private static <K, V> Node<K, V> sentinel() {
+        Node<K, V> s = new Node<>(null, null);
+        s.prev = s.next = s;
+        return s;
+    }
+
+    private static <K, V> void linkLast(Node<K, V> head, Node<K, V> n, int queue) {
+        n.prev = head.prev;
+        n.next = head;
+        head.prev.next = n;
+        head.prev = n;
+        n.queue = queue;
+    }
+
+    private static <K, V> void unlink(Node<K, V> n) {
+        n.prev.next = n.next;
+        n.next.prev = n.prev;
+        n.prev = n.next = null;
+    }
+
+    private static <K, V> void moveToLast(Node<K, V> head, Node<K, V> n) {
+        int q = n.queue;
+        unlink(n);
+        linkLast(head, n, q);
+    }
+
+    private static long mix(long x) {
+        x = (x ^ (x >>> 33)) * 0xff51afd7ed558ccdL;
+        x = (x ^ (x >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return x ^ (x >>> 33);
+    }
+
+    // ------------------- count-min sketch -------------------
+
+    /**
+     * 4 rows of 4-bit counters packed 16 per long. Once the number of increments reaches 10x the
+     * table size every counter is halved, so old popularity fades (the "reset" of TinyLFU).
+     */
+    static final class FrequencySketch {
+        private static final long[] SEEDS = {
+                0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+        private final long[] table;
+        private final int counterMask;        // over table.length * 16 counters
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int capacity) {
+            int longs = Integer.highestOneBit(Math.max(1, capacity) - 1 | 1) << 1;
+            table = new long[longs];
+            counterMask = longs * 16 - 1;
+            sampleSize = 10 * Math.max(1, capacity);
+        }
+
+        void increment(int hash) {
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int c = counter(hash, i);
+                int idx = c >>> 4, shift = (c & 15) << 2;
+                if (((table[idx] >>> shift) & 15) < 15) {
+                    table[idx] += 1L << shift;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) reset();
+        }
+
+        int frequency(int hash) {
+            int min = 15;
+            for (int i = 0; i < 4; i++) {
+                int c = counter(hash, i);
+                min = Math.min(min, (int) ((table[c >>> 4] >>> ((c & 15) << 2)) & 15));
+            }
+            return min;
+        }
+
+        private int counter(int hash, int row) {
+            return (int) mix((hash & 0xffffffffL) + SEEDS[row]) & counterMask;
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+            additions >>>= 1;
+        }
+    }
+
+    // ------------------- Demo -------------------
+    public static void main(String[] args) throws InterruptedException {
+        ConcurrentTinyLfuCache<Integer, Integer> cache = new ConcurrentTinyLfuCache<>(1_000);
+        Thread[] workers = new Thread[8];
+        long[] hits = new long[workers.length];
+        for (int t = 0; t < workers.length; t++) {
+            int id = t;
+            workers[t] = new Thread(() -> {
+                Random rnd = new Random(id);
+                for (int i = 0; i < 500_000; i++) {
+                    // skewed keys: a few hot ones, a long tail of cold ones
+                    int key = (int) Math.pow(100_000, rnd.nextDouble() * rnd.nextDouble());
+                    if (cache.get(key) != null) hits[id]++; else cache.put(key, key);
+                }
+            });
+            workers[t].start();
+        }
+        long total = 0;
+        for (int t = 0; t < workers.length; t++) {
+            workers[t].join();
+            total += hits[t];
+        }
+        System.out.printf("size=%d hit ratio=%.3f%n", cache.size(), total / (double) (workers.length * 500_000));
+    }
+}
@@ -0,0 +1,216 @@
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * ExpiringLRUCache
+ *
+ * LRUCacche plus time-to-live: entries leave the cache when capacity forces out the least recently
+ * used one (eviction) or when their TTL runs out (expiry), whichever comes first.
+ *
+ *  - Storage is an access-ordered LinkedHashMap, exactly as in LRUCacche; removeEldestEntry evicts.
+ *  - Each entry is also a TimingWheel timer, so scheduling and cancelling its deadline are O(1).
+ *  - TTL is per entry (put(k, v, ttl)) or the cache default; Duration.ZERO / null means "never".
+ *  - Expire-after-write by default; with expireAfterAccess a hit pushes the deadline out again.
+ *  - Every operation first advances the wheel to "now", removing all due entries in one batch, so a
+ *    stale entry is never returned. startSweeper(...) also does this periodically, which frees the
+ *    capacity of entries nobody touches again.
+ *  - hits / misses / evictions / expirations are counted for tuning capacity against hit ratio.
+ *
+ * All public methods are synchronized (one lock, like Collections.synchronizedMap).
+ *
+ * Time Complexity:  O(1) amortized get/put/remove (+ O(expired) for the batch they trigger)
+ * Space Complexity: O(capacity)
+ */
+public class ExpiringLRUCache<K, V> implements AutoCloseable {
+
+    public record Stats(long hits, long misses, long evictions, long expirations) {
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    private static final class Entry<K, V> extends TimingWheel.Timer {
+        final K key;
+        V value;
+        long ttlTicks;                  // 0 = no expiry
+
+        Entry(K key, V value, long ttlTicks) {
+            this.key = key;
+            this.value = value;
+            this.ttlTicks = ttlTicks;
+        }
+    }
+
+    private final int maxCapacity;
+    private final long tickNanos;
+    private final long defaultTtlTicks;
+    private final boolean expireAfterAccess;
+    private final LongSupplier nanoClock;
+    private final long originNanos;             // clock reading at construction: tick 0
+    private final TimingWheel<Entry<K, V>> wheel;
+    private final LinkedHashMap<K, Entry<K, V>> map;
+
+    private long hits, misses, evictions, expirations;
+    private ScheduledExecutorService sweeper;
+
+    public ExpiringLRUCache(int maxCapacity, Duration defaultTtl) {
+        this(maxCapacity, defaultTtl, false, Duration.ofMillis(1), System::nanoTime);
+    }
+
+    /**
+     * @param tick      wheel resolution; an entry expires within one tick after its deadline
+     * @param nanoClock monotonic time source (System::nanoTime; injectable for tests)
+     */
+    public ExpiringLRUCache(int maxCapacity, Duration defaultTtl, boolean expireAfterAccess,
+                            Duration tick, LongSupplier nanoClock) {
+        if (maxCapacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        if (tick.isNegative() || tick.isZero()) throw new IllegalArgumentException("tick must be positive");
+        this.maxCapacity = maxCapacity;
+        this.tickNanos = tick.toNanos();
+        this.expireAfterAccess = expireAfterAccess;
+        this.nanoClock = nanoClock;
+        this.originNanos = nanoClock.getAsLong();
+        this.defaultTtlTicks = toTicks(defaultTtl);
+        this.wheel = new TimingWheel<>(0);
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<K, V>> eldest) {
+                if (size() <= ExpiringLRUCache.this.maxCapacity) return false;
+                wheel.cancel(eldest.getValue());
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /** Returns the value, or null if absent or expired. */
+    public synchronized V get(K key) {
+        long now = expire();
+        Entry<K, V> e = map.get(key);
+        if (e == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        if (expireAfterAccess && e.ttlTicks > 0) wheel.schedule(e, deadline(now, e.ttlTicks));
+        return e.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        put(key, value, defaultTtlTicks);
+    }
+
+    public synchronized void put(K key, V value, Duration ttl) {
+        put(key, value, toTicks(ttl));
+    }
+
+    private void put(K key, V value, long ttlTicks) {
+        long now = expire();
+        Entry<K, V> e = map.get(key);
+        if (e == null) {
+            e = new Entry<>(key, value, ttlTicks);
+            map.put(key, e);
+        } else {
+            e.value = value;
+            e.ttlTicks = ttlTicks;
+        }
+        if (ttlTicks > 0) wheel.schedule(e, deadline(now, ttlTicks));
+        else wheel.cancel(e);
+    }
+
+    public synchronized V remove(K key) {
+        expire();
+        Entry<K, V> e = map.remove(key);
+        if (e == null) return null;
+        wheel.cancel(e);
+        return e.value;
+    }
+
+    public synchronized int size() {
+        expire();
+        return map.size();
+    }
+
+    /** Removes every entry whose deadline has passed. */
+    public synchronized void cleanUp() {
+        expire();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, expirations);
+    }
+
+    /** Runs cleanUp() every {@code period} on a daemon thread until close(). */
+    public synchronized void startSweeper(Duration period) {
+        if (sweeper != null) return;
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "lru-expiry-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long nanos = period.toNanos();
+        sweeper.scheduleAtFixedRate(this::cleanUp, nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+    }
+
+    private long expire() {
+        long now = nowTick();
+        wheel.advance(now, e -> {
+            map.remove(e.key);
+            expirations++;
+        });
+        return now;
+    }
+
+    // Ticks since construction. The raw nanoTime origin is arbitrary (it may be negative or cross zero
+    // while running); the difference is exact across that and never negative for a monotonic clock.
+    private long nowTick() {
+        return (nanoClock.getAsLong() - originNanos) / tickNanos;
+    }
+
+    // Saturates instead of overflowing for very long TTLs.
+    private static long deadline(long now, long ttlTicks) {
+        long d = now + ttlTicks;
+        return d < 0 ? Long.MAX_VALUE : d;
+    }
+
+    // Rounds up so an entry never lives shorter than its TTL.
+    private long toTicks(Duration ttl) {
+        if (ttl == null || ttl.isZero()) return 0;
+        if (ttl.isNegative()) throw new IllegalArgumentException("ttl must not be negative");
+        long nanos = ttl.toNanos();
+        return (nanos + tickNanos - 1) / tickNanos;
+    }
+
+    // ------------------- Demo -------------------
+    public static void main(String[] args) {
+        long[] clock = {0};
+        ExpiringLRUCache<String, String> cache = new ExpiringLRUCache<>(
+                2, Duration.ofSeconds(30), false, Duration.ofMillis(1), () -> clock[0]);
+
+        cache.put("s1", "alice");
+        cache.put("s2", "bob", Duration.ofSeconds(5));
+        System.out.println(cache.get("s2"));    // bob
+        clock[0] += Duration.ofSeconds(6).toNanos();
+        System.out.println(cache.get("s2"));    // null (expired)
+        cache.put("s3", "carol");
+        cache.put("s4", "dave");                // evicts s1 (capacity 2)
+        System.out.println(cache.get("s1"));    // null (evicted)
+        clock[0] += Duration.ofSeconds(30).toNanos();
+        System.out.println(cache.size());       // 0
+        System.out.println(cache.stats());      // hits=1, misses=2, evictions=1, expirations=3
+    }
+}
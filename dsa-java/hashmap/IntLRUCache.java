@@ -0,0 +1,159 @@
+import java.util.Arrays;
+
+/**
+ * IntLRUCache
+ *
+ * Same contract as LRUCacche (get returns -1 on a miss, put evicts the least recently used entry
+ * once capacity is exceeded) but specialised for int keys/values:
+ *
+ *  - Entries live in parallel int[] arrays (key, value, prev, next) indexed by an entry id.
+ *    prev/next form an intrusive doubly-linked recency list: head = most recent, tail = eldest.
+ *  - An open-addressing table (linear probing, power-of-two size, load factor <= 0.5) maps
+ *    key -> entry id + 1 (0 = empty). Deletion uses backward shifting, so no tombstones pile up.
+ *  - When full, the tail entry's id is recycled for the new key.
+ *
+ * Nothing is allocated after construction: no Entry objects, no boxed Integers.
+ * Memory: ~24 bytes per entry (4 ints of entry data + 2 table slots) vs ~80+ for LinkedHashMap.
+ *
+ * Time Complexity:  O(1) expected for get/put
+ * Space Complexity: O(capacity)
+ */
+public class IntLRUCache {
+    private static final int NIL = -1;
+
+    private final int capacity;
+    private final int mask;
+    private final int[] table;          // entry id + 1, 0 = empty slot
+    private final int[] keys, values, prev, next;
+    private int head = NIL, tail = NIL;
+    private int size;
+
+    public IntLRUCache(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;   // >= 2 * capacity
+        this.mask = tableSize - 1;
+        this.table = new int[tableSize];
+        this.keys = new int[capacity];
+        this.values = new int[capacity];
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+    }
+
+    public int get(int key) {
+        int id = find(key);
+        if (id == NIL) return -1;
+        moveToHead(id);
+        return values[id];
+    }
+
+    public void put(int key, int value) {
+        int id = find(key);
+        if (id != NIL) {
+            values[id] = value;
+            moveToHead(id);
+            return;
+        }
+        if (size < capacity) {
+            id = size++;
+        } else {
+            id = tail;                  // evict eldest and recycle its entry id
+            removeFromTable(keys[id]);
+            unlink(id);
+        }
+        keys[id] = key;
+        values[id] = value;
+        insertIntoTable(key, id);
+        linkAtHead(id);
+    }
+
+    public boolean containsKey(int key) {
+        return find(key) != NIL;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        head = tail = NIL;
+        size = 0;
+    }
+
+    // ------------------- hash table -------------------
+
+    private static int mix(int k) {
+        k ^= k >>> 16;
+        k *= 0x85ebca6b;
+        k ^= k >>> 13;
+        k *= 0xc2b2ae35;
+        return k ^ (k >>> 16);
+    }
+
+    private int find(int key) {
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            int e = table[i];
+            if (e == 0) return NIL;
+            if (keys[e - 1] == key) return e - 1;
+        }
+    }
+
+    private void insertIntoTable(int key, int id) {
+        int i = mix(key) & mask;
+        while (table[i] != 0) i = (i + 1) & mask;
+        table[i] = id + 1;
+    }
+
+    // Backward-shift deletion: pull later entries of the probe run into the hole when allowed.
+    private void removeFromTable(int key) {
+        int i = mix(key) & mask;
+        while (keys[table[i] - 1] != key) i = (i + 1) & mask;
+        for (int j = (i + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+            int home = mix(keys[table[j] - 1]) & mask;
+            // move j into hole i unless its home lies cyclically in (i, j]
+            boolean homeInRange = i <= j ? (home > i && home <= j) : (home > i || home <= j);
+            if (!homeInRange) {
+                table[i] = table[j];
+                i = j;
+            }
+        }
+        table[i] = 0;
+    }
+
+    // ------------------- recency list -------------------
+
+    private void linkAtHead(int id) {
+        prev[id] = NIL;
+        next[id] = head;
+        if (head != NIL) prev[head] = id;
+        head = id;
+        if (tail == NIL) tail = id;
+    }
+
+    private void unlink(int id) {
+        int p = prev[id], n = next[id];
+        if (p != NIL) next[p] = n; else head = n;
+        if (n != NIL) prev[n] = p; else tail = p;
+    }
+
+    private void moveToHead(int id) {
+        if (id == head) return;
+        unlink(id);
+        linkAtHead(id);
+    }
+
+    // ------------------- Demo -------------------
+    public static void main(String[] args) {
+        IntLRUCache cache = new IntLRUCache(2);
+        cache.put(1, 1);
+        cache.put(2, 2);
+        System.out.println(cache.get(1));   // 1
+        cache.put(3, 3);                    // evicts 2
+        System.out.println(cache.get(2));   // -1
+        cache.put(4, 4);                    // evicts 1
+        System.out.println(cache.get(1));   // -1
+        System.out.println(cache.get(3));   // 3
+        System.out.println(cache.get(4));   // 4
+    }
+}
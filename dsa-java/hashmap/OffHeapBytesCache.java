@@ -0,0 +1,69 @@
+/**
+ * OffHeapBytesCache
+ *
+ * LRU cache from long keys to variable-length byte[] values, all stored off-heap:
+ * an OffHeapLRUCache maps key -> slab handle, and a SlabAllocator holds the bytes.
+ *
+ * Evictions happen for two reasons:
+ *  - entry count exceeds capacity (the index evicts its LRU entry; its listener frees the slab slot), or
+ *  - the slab budget (maxBytes) has no slot for the new value's size class. If the LRU entry is in
+ *    that class, evicting it frees a slot. Otherwise its page is moved to the needed class
+ *    (memcached's slab reassign): the entries in that one page are dropped and the page is reused.
+ *    Either way a put evicts at most one page's worth of entries, never the whole cache.
+ *
+ * get returns null on a miss; returned arrays are copies.
+ */
+public class OffHeapBytesCache implements AutoCloseable {
+    private final SlabAllocator slabs;
+    private final OffHeapLRUCache index;
+
+    public OffHeapBytesCache(int capacity, long maxBytes) {
+        this.slabs = new SlabAllocator(maxBytes);
+        this.index = new OffHeapLRUCache(capacity, (key, handle) -> slabs.free(handle));
+    }
+
+    public byte[] get(long key) {
+        long h = index.get(key, -1);
+        return h < 0 ? null : slabs.read(h);
+    }
+
+    public void put(long key, byte[] value) {
+        long old = index.remove(key, -1);
+        if (old >= 0) slabs.free(old);
+        long h = slabs.allocate(value.length);
+        if (h < 0) {
+            long eldest = index.eldestValue(-1);
+            if (eldest < 0) {
+                slabs.reset();              // cache is empty: every page is free to change size class
+            } else if (SlabAllocator.sameClass(eldest, value.length)) {
+                index.evictEldest();        // frees a slot of the needed class
+            } else {
+                slabs.reassign(eldest, value.length, k -> index.remove(k, -1));
+            }
+            h = slabs.allocate(value.length);
+            if (h < 0) throw new IllegalArgumentException("value does not fit in the slab budget");
+        }
+        slabs.write(h, key, value);
+        index.put(key, h);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public void close() {
+        index.close();
+        slabs.close();
+    }
+
+    // ------------------- Demo -------------------
+    public static void main(String[] args) {
+        try (OffHeapBytesCache cache = new OffHeapBytesCache(100_000, 8L << 20)) {
+            for (long k = 0; k < 200_000; k++) cache.put(k, ("value-" + k).getBytes());
+            System.out.println("size=" + cache.size());
+            System.out.println(new String(cache.get(199_999)));
+            System.out.println(cache.get(0) == null ? "0 evicted" : "0 present");
+        }
+    }
+}
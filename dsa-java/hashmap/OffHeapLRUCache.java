@@ -0,0 +1,314 @@
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * OffHeapLRUCache
+ *
+ * LRU cache for long keys/values (ints fit too) whose hash table and recency list live entirely in
+ * direct ByteBuffers, so the Java heap holds only a handful of buffer references no matter how many
+ * entries are stored, and the GC never scans or copies the entries.
+ *
+ * Layout (same design as IntLRUCache, moved off-heap):
+ *  - Entry arena: 24 bytes per entry = key(8) | value(8) | prev(4) | next(4), in chunks of 2^20
+ *    entries (24 MiB each, allocated on demand) because a single ByteBuffer is capped at 2 GiB.
+ *  - Hash table: linear probing over int slots holding entry id + 1 (0 = empty), power-of-two size
+ *    >= 2 * capacity, chunked the same way; deletion by backward shifting.
+ *  - Recency: intrusive doubly-linked list through prev/next; head = MRU, tail = eldest.
+ *
+ * get returns -1 on a miss (like LRUCacche); use get(key, missing) when -1 is a legal value.
+ * An optional EvictionListener sees every evicted (key, value), e.g. to free what the value points
+ * at (see OffHeapBytesCache). close() frees the native memory immediately instead of waiting for GC.
+ *
+ * Time Complexity:  O(1) expected for get/put
+ * Space Complexity: off-heap ~32 bytes per entry (24 entry + >= 8 table), O(1) heap
+ */
+public class OffHeapLRUCache implements AutoCloseable {
+
+    /** Called for every entry evicted to make room (not for explicit removes or overwrites). */
+    public interface EvictionListener {
+        void onEvict(long key, long value);
+    }
+
+    private static final int NIL = -1;
+    private static final int ENTRY_BYTES = 24;
+    private static final int ENTRY_CHUNK_BITS = 20;
+    private static final int TABLE_CHUNK_BITS = 22;   // 16 MiB of int slots per chunk
+
+    private final int capacity;
+    private final long tableMask;
+    private final EvictionListener listener;
+    private ByteBuffer[] entries;
+    private ByteBuffer[] table;
+    private int head = NIL, tail = NIL;
+    private int size;
+
+    public OffHeapLRUCache(int capacity) {
+        this(capacity, null);
+    }
+
+    public OffHeapLRUCache(int capacity, EvictionListener listener) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+        this.listener = listener;
+        long tableSize = Long.highestOneBit(Math.max(2L, capacity) * 2 - 1) << 1;
+        this.tableMask = tableSize - 1;
+        int tableChunkSlots = (int) Math.min(tableSize, 1L << TABLE_CHUNK_BITS);
+        this.table = new ByteBuffer[(int) (tableSize / tableChunkSlots)];
+        for (int i = 0; i < table.length; i++) table[i] = allocate(tableChunkSlots * 4);
+        this.entries = new ByteBuffer[((capacity - 1) >>> ENTRY_CHUNK_BITS) + 1];
+    }
+
+    public long get(long key) {
+        return get(key, -1);
+    }
+
+    public long get(long key, long missing) {
+        int id = find(key);
+        if (id == NIL) return missing;
+        moveToHead(id);
+        return value(id);
+    }
+
+    public boolean containsKey(long key) {
+        return find(key) != NIL;
+    }
+
+    public void put(long key, long value) {
+        int id = find(key);
+        if (id != NIL) {
+            setValue(id, value);
+            moveToHead(id);
+            return;
+        }
+        if (size < capacity) {
+            id = size++;
+        } else {
+            id = tail;                  // evict eldest and recycle its entry
+            long oldKey = key(id), oldValue = value(id);
+            removeFromTable(oldKey);
+            unlink(id);
+            if (listener != null) listener.onEvict(oldKey, oldValue);
+        }
+        setKey(id, key);
+        setValue(id, value);
+        insertIntoTable(key, id);
+        linkAtHead(id);
+    }
+
+    // Evicts the eldest entry (firing the listener); returns false if empty.
+    public boolean evictEldest() {
+        if (size == 0) return false;
+        int id = tail;
+        long k = key(id), v = value(id);
+        removeEntry(id);
+        if (listener != null) listener.onEvict(k, v);
+        return true;
+    }
+
+    // Value of the eldest entry without touching recency, or missing if empty.
+    public long eldestValue(long missing) {
+        return size == 0 ? missing : value(tail);
+    }
+
+    // Removes key; returns its value, or missing if absent.
+    public long remove(long key, long missing) {
+        int id = find(key);
+        if (id == NIL) return missing;
+        long v = value(id);
+        removeEntry(id);
+        return v;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public void close() {
+        if (table == null) return;
+        for (ByteBuffer b : table) free(b);
+        for (ByteBuffer b : entries) if (b != null) free(b);
+        table = null;
+        entries = null;
+    }
+
+    // ------------------- entry arena -------------------
+
+    private ByteBuffer chunk(int id) {
+        ByteBuffer[] es = entries;
+        if (es == null) throw new IllegalStateException("cache is closed");
+        int c = id >>> ENTRY_CHUNK_BITS;
+        ByteBuffer b = es[c];
+        if (b == null) {
+            int entriesInChunk = Math.min(1 << ENTRY_CHUNK_BITS, capacity - (c << ENTRY_CHUNK_BITS));
+            b = es[c] = allocate(entriesInChunk * ENTRY_BYTES);
+        }
+        return b;
+    }
+
+    private static int off(int id) {
+        return (id & ((1 << ENTRY_CHUNK_BITS) - 1)) * ENTRY_BYTES;
+    }
+
+    private long key(int id) { return chunk(id).getLong(off(id)); }
+    private long value(int id) { return chunk(id).getLong(off(id) + 8); }
+    private int prev(int id) { return chunk(id).getInt(off(id) + 16); }
+    private int next(int id) { return chunk(id).getInt(off(id) + 20); }
+    private void setKey(int id, long k) { chunk(id).putLong(off(id), k); }
+    private void setValue(int id, long v) { chunk(id).putLong(off(id) + 8, v); }
+    private void setPrev(int id, int p) { chunk(id).putInt(off(id) + 16, p); }
+    private void setNext(int id, int n) { chunk(id).putInt(off(id) + 20, n); }
+
+    // Unlinks entry id and moves the last entry into its place, so live ids stay dense in [0, size).
+    private void removeEntry(int id) {
+        removeFromTable(key(id));
+        unlink(id);
+        int last = --size;
+        if (id != last) {
+            long k = key(last);
+            int p = prev(last), n = next(last);
+            setKey(id, k);
+            setValue(id, value(last));
+            setPrev(id, p);
+            setNext(id, n);
+            if (p != NIL) setNext(p, id); else head = id;
+            if (n != NIL) setPrev(n, id); else tail = id;
+            setSlot(slotOf(k), id + 1);
+        }
+    }
+
+    // ------------------- hash table -------------------
+
+    private int slot(long i) {
+        ByteBuffer[] t = table;
+        if (t == null) throw new IllegalStateException("cache is closed");
+        return t[(int) (i >>> TABLE_CHUNK_BITS)].getInt((int) (i & ((1 << TABLE_CHUNK_BITS) - 1)) * 4);
+    }
+
+    private void setSlot(long i, int v) {
+        table[(int) (i >>> TABLE_CHUNK_BITS)].putInt((int) (i & ((1 << TABLE_CHUNK_BITS) - 1)) * 4, v);
+    }
+
+    private static long mix(long k) {
+        k = (k ^ (k >>> 33)) * 0xff51afd7ed558ccdL;
+        k = (k ^ (k >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return k ^ (k >>> 33);
+    }
+
+    private int find(long key) {
+        for (long i = mix(key) & tableMask; ; i = (i + 1) & tableMask) {
+            int e = slot(i);
+            if (e == 0) return NIL;
+            if (key(e - 1) == key) return e - 1;
+        }
+    }
+
+    private long slotOf(long key) {
+        long i = mix(key) & tableMask;
+        while (key(slot(i) - 1) != key) i = (i + 1) & tableMask;
+        return i;
+    }
+
+    private void insertIntoTable(long key, int id) {
+        long i = mix(key) & tableMask;
+        while (slot(i) != 0) i = (i + 1) & tableMask;
+        setSlot(i, id + 1);
+    }
+
+    private void removeFromTable(long key) {
+        long i = slotOf(key);
+        for (long j = (i + 1) & tableMask; slot(j) != 0; j = (j + 1) & tableMask) {
+            long home = mix(key(slot(j) - 1)) & tableMask;
+            boolean homeInRange = i <= j ? (home > i && home <= j) : (home > i || home <= j);
+            if (!homeInRange) {
+                setSlot(i, slot(j));
+                i = j;
+            }
+        }
+        setSlot(i, 0);
+    }
+
+    // ------------------- recency list -------------------
+
+    private void linkAtHead(int id) {
+        setPrev(id, NIL);
+        setNext(id, head);
+        if (head != NIL) setPrev(head, id);
+        head = id;
+        if (tail == NIL) tail = id;
+    }
+
+    private void unlink(int id) {
+        int p = prev(id), n = next(id);
+        if (p != NIL) setNext(p, n); else head = n;
+        if (n != NIL) setPrev(n, p); else tail = p;
+    }
+
+    private void moveToHead(int id) {
+        if (id == head) return;
+        unlink(id);
+        linkAtHead(id);
+    }
+
+    // ------------------- native memory -------------------
+
+    static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    // Releases a direct buffer now (sun.misc.Unsafe.invokeCleaner); falls back to GC if unavailable.
+    static void free(ByteBuffer b) {
+        if (CLEANER == null) return;
+        try {
+            CLEANER.invoke(UNSAFE, b);
+        } catch (ReflectiveOperationException ignored) {
+            // left to the GC
+        }
+    }
+
+    private static final Object UNSAFE;
+    private static final Method CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method cleaner = null;
+        try {
+            Class<?> c = Class.forName("sun.misc.Unsafe");
+            Field f = c.getDeclaredField("theUnsafe");
+            f.setAccessible(true);
+            unsafe = f.get(null);
+            cleaner = c.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            // not available on this JVM: buffers are released by the GC
+        }
+        UNSAFE = unsafe;
+        CLEANER = cleaner;
+    }
+
+    // ------------------- Demo -------------------
+    public static void main(String[] args) {
+        try (OffHeapLRUCache cache = new OffHeapLRUCache(2)) {
+            cache.put(1, 1);
+            cache.put(2, 2);
+            System.out.println(cache.get(1));   // 1
+            cache.put(3, 3);                    // evicts 2
+            System.out.println(cache.get(2));   // -1
+            cache.put(4, 4);                    // evicts 1
+            System.out.println(cache.get(1));   // -1
+            System.out.println(cache.get(3));   // 3
+            System.out.println(cache.get(4));   // 4
+        }
+
+        int n = 5_000_000;
+        try (OffHeapLRUCache big = new OffHeapLRUCache(n)) {
+            for (long k = 0; k < 2L * n; k++) big.put(k * 31, k);
+            System.out.println("size=" + big.size() + " eldest survivor=" + big.get((long) n * 31));
+        }
+    }
+}
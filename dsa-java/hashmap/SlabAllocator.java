@@ -0,0 +1,175 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * SlabAllocator
+ *
+ * Off-heap storage for variable-length byte[] values, memcached-style:
+ *  - Size classes of 64, 128, ... bytes up to 1 MiB. A used slot holds a 4-byte length, the 8-byte
+ *    owner key and the payload; a free slot holds length -1 and the next free handle.
+ *  - Memory comes in 1 MiB direct-buffer pages, handed to a size class on demand until maxBytes.
+ *  - Each class keeps a free list threaded through its free slots, so alloc/free are O(1) and
+ *    allocate nothing on the heap.
+ *  - Once the budget is spent, pages stay with their class (slab calcification) until reassign()
+ *    moves one page to another class, reporting the owner key of every value it drops.
+ *
+ * A handle packs class (8 bits) | page (32 bits) | slot within page (24 bits); handles are >= 0,
+ * and allocate returns -1 when the class has no free slot and the page budget is spent.
+ */
+public class SlabAllocator implements AutoCloseable {
+    static final int PAGE_SIZE = 1 << 20;
+    private static final int MIN_SLOT = 64;
+    private static final int CLASSES = Integer.numberOfTrailingZeros(PAGE_SIZE / MIN_SLOT) + 1;
+    private static final int SLOT_HEADER = 12;             // length(4) | key(8)
+    static final int MAX_VALUE_BYTES = PAGE_SIZE - SLOT_HEADER;
+
+    private ByteBuffer[] pages;             // fixed-size page table: heap use is constant
+    private int pagesUsed;                  // pages handed to a size class since the last reset
+    private int pagesAllocated;             // direct buffers actually allocated (reused after reset)
+    private final long[] freeHead = new long[CLASSES];
+    private final long[] bumpHandle = new long[CLASSES];   // next never-used slot in the class's newest page
+
+    public SlabAllocator(long maxBytes) {
+        long n = maxBytes / PAGE_SIZE;
+        if (n <= 0 || n > Integer.MAX_VALUE) throw new IllegalArgumentException("maxBytes must be in [1 MiB, 2^31 MiB]");
+        this.pages = new ByteBuffer[(int) n];
+        Arrays.fill(freeHead, -1);
+        Arrays.fill(bumpHandle, -1);
+    }
+
+    public long allocate(int length) {
+        if (length < 0 || length > MAX_VALUE_BYTES) throw new IllegalArgumentException("value too large: " + length);
+        int cls = classOf(length + SLOT_HEADER);
+        long h = freeHead[cls];
+        if (h >= 0) {
+            freeHead[cls] = page(h).getLong(offset(h) + 4);
+            return h;
+        }
+        h = bumpHandle[cls];
+        if (h < 0) {
+            if (pagesUsed == pages.length) return -1;
+            int p = pagesUsed++;
+            if (p == pagesAllocated) pages[pagesAllocated++] = OffHeapLRUCache.allocate(PAGE_SIZE);
+            h = handle(cls, p, 0);
+        }
+        int slots = PAGE_SIZE / slotSize(cls);
+        int next = slotIndex(h) + 1;
+        bumpHandle[cls] = next < slots ? handle(cls, pageIndex(h), next) : -1;
+        return h;
+    }
+
+    public void free(long h) {
+        int cls = classOfHandle(h);
+        ByteBuffer p = page(h);
+        p.putInt(offset(h), -1);
+        p.putLong(offset(h) + 4, freeHead[cls]);
+        freeHead[cls] = h;
+    }
+
+    // key identifies the value's owner, so reassign() can report which entries it dropped.
+    public void write(long h, long key, byte[] value) {
+        ByteBuffer p = page(h);
+        int off = offset(h);
+        p.putInt(off, value.length);
+        p.putLong(off + 4, key);
+        p.put(off + SLOT_HEADER, value);
+    }
+
+    public byte[] read(long h) {
+        ByteBuffer p = page(h);
+        int off = offset(h);
+        byte[] out = new byte[p.getInt(off)];
+        p.get(off + SLOT_HEADER, out);
+        return out;
+    }
+
+    // True if a value of this length would be allocated in the same size class as handle h.
+    public static boolean sameClass(long h, int length) {
+        return classOfHandle(h) == classOf(length + SLOT_HEADER);
+    }
+
+    /**
+     * Moves the page holding handle h to the size class of length, and makes it that class's bump
+     * page. Every value still stored in the page is dropped and its key passed to dropped, so the
+     * caller can forget the handle (without freeing it). The class must have no free slot, as after
+     * a failed allocate(length). Cost: one page of slots plus the old class's free list.
+     */
+    public void reassign(long h, int length, LongConsumer dropped) {
+        int from = classOfHandle(h), to = classOf(length + SLOT_HEADER), page = pageIndex(h);
+        if (from == to) throw new IllegalArgumentException("page is already in the target class");
+        ByteBuffer p = page(h);
+        int size = slotSize(from);
+        int used = PAGE_SIZE / size;                           // slots ever handed out in this page
+        if (bumpHandle[from] >= 0 && pageIndex(bumpHandle[from]) == page) {
+            used = slotIndex(bumpHandle[from]);
+            bumpHandle[from] = -1;
+        }
+        for (int i = 0; i < used; i++) {
+            if (p.getInt(i * size) >= 0) dropped.accept(p.getLong(i * size + 4));
+        }
+        long kept = -1, last = -1;                             // unthread this page's free slots
+        for (long f = freeHead[from]; f >= 0; ) {
+            long next = page(f).getLong(offset(f) + 4);
+            if (pageIndex(f) != page) {
+                if (last < 0) kept = f;
+                else page(last).putLong(offset(last) + 4, f);
+                last = f;
+            }
+            f = next;
+        }
+        if (last >= 0) page(last).putLong(offset(last) + 4, -1);
+        freeHead[from] = kept;
+        bumpHandle[to] = handle(to, page, 0);
+    }
+
+    // Forgets every allocation and returns all pages to the pool; callers must hold no live handles.
+    public void reset() {
+        for (int c = 0; c < CLASSES; c++) freeHead[c] = bumpHandle[c] = -1;
+        pagesUsed = 0;
+    }
+
+    public long reservedBytes() {
+        return (long) pagesAllocated * PAGE_SIZE;
+    }
+
+    @Override
+    public void close() {
+        if (pages == null) return;
+        for (int i = 0; i < pagesAllocated; i++) OffHeapLRUCache.free(pages[i]);
+        pages = null;
+    }
+
+    private static int classOf(int bytes) {
+        return 32 - Integer.numberOfLeadingZeros(Math.max(bytes, MIN_SLOT) - 1) - 6;   // ceil(log2) - log2(64)
+    }
+
+    private static int classOfHandle(long h) {
+        return (int) (h >>> 56);
+    }
+
+    private static int slotSize(int cls) {
+        return MIN_SLOT << cls;
+    }
+
+    private static long handle(int cls, int page, int slot) {
+        return ((long) cls << 56) | ((long) page << 24) | slot;
+    }
+
+    private ByteBuffer page(long h) {
+        if (pages == null) throw new IllegalStateException("allocator is closed");
+        return pages[pageIndex(h)];
+    }
+
+    private static int pageIndex(long h) {
+        return (int) (h >>> 24);
+    }
+
+    private static int slotIndex(long h) {
+        return (int) (h & 0xFFFFFF);
+    }
+
+    private static int offset(long h) {
+        return slotIndex(h) * slotSize(classOfHandle(h));
+    }
+}
@@ -0,0 +1,110 @@
+import java.util.function.Consumer;
+
+/**
+ * TimingWheel
+ *
+ * Hierarchical timing wheel (Varghese & Lauck) for expiring cache entries.
+ *
+ *  - 6 levels x 64 buckets. Level i buckets are 64^i ticks wide, so level 0 is exact to one tick and
+ *    the wheel spans 64^6 ticks (~2 years at 1 ms ticks); later deadlines sit in the top level.
+ *  - Timers are intrusive doubly-linked nodes, so schedule and cancel are O(1) with no allocation.
+ *  - advance(now) visits only the buckets whose time range has passed (at most 64 per level).
+ *    A timer found there either expires (deadline <= now) or is rescheduled into a finer level.
+ *
+ * Ticks must be non-negative (bucket indices come from unsigned shifts): count them from a fixed
+ * origin, e.g. (System.nanoTime() - startNanos) / tickNanos, never from the raw clock, whose origin is
+ * arbitrary and may be negative. Not thread-safe: the owning cache calls it under its lock.
+ *
+ * Time Complexity:  O(1) schedule/cancel, O(64 * levels + expired) per advance
+ * Space Complexity: O(timers) + 384 bucket sentinels
+ */
+public class TimingWheel<T extends TimingWheel.Timer> {
+
+    /** Intrusive timer node; extend it with the payload (e.g. the cache entry). */
+    public static class Timer {
+        long deadline;                  // in ticks
+        Timer prev, next;
+
+        public boolean isScheduled() {
+            return prev != null;
+        }
+    }
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int LEVELS = 6;
+
+    private final Timer[][] buckets = new Timer[LEVELS][SLOTS];   // circular sentinels
+    private long currentTick;
+
+    public TimingWheel(long startTick) {
+        if (startTick < 0) throw new IllegalArgumentException("ticks must be non-negative");
+        this.currentTick = startTick;
+        for (Timer[] level : buckets) {
+            for (int i = 0; i < SLOTS; i++) {
+                Timer s = new Timer();
+                s.prev = s.next = s;
+                level[i] = s;
+            }
+        }
+    }
+
+    public void schedule(T timer, long deadlineTick) {
+        if (deadlineTick < 0) throw new IllegalArgumentException("ticks must be non-negative");
+        if (timer.isScheduled()) unlink(timer);
+        timer.deadline = deadlineTick;
+        link(timer);
+    }
+
+    public void cancel(T timer) {
+        if (timer.isScheduled()) unlink(timer);
+    }
+
+    // Moves time forward to nowTick and hands every timer with deadline <= nowTick to onExpire.
+    @SuppressWarnings("unchecked")
+    public void advance(long nowTick, Consumer<T> onExpire) {
+        long prev = currentTick;
+        if (nowTick <= prev) return;
+        currentTick = nowTick;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = level * BITS;
+            long from = prev >>> shift, to = nowTick >>> shift;
+            if (to == from) break;                         // coarser levels did not move either
+            long span = Math.min(to - from, SLOTS - 1);
+            for (long t = from; t <= from + span; t++) {
+                Timer sentinel = buckets[level][(int) (t & (SLOTS - 1))];
+                Timer n = sentinel.next;
+                sentinel.prev = sentinel.next = sentinel;  // detach the whole bucket, then re-file each
+                while (n != sentinel) {
+                    Timer next = n.next;
+                    n.prev = n.next = null;
+                    if (n.deadline <= nowTick) onExpire.accept((T) n);
+                    else link(n);
+                    n = next;
+                }
+            }
+        }
+    }
+
+    public long currentTick() {
+        return currentTick;
+    }
+
+    private void link(Timer t) {
+        long delta = Math.max(0, t.deadline - currentTick);
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (BITS * (level + 1)))) level++;
+        long at = Math.max(t.deadline, currentTick);
+        Timer sentinel = buckets[level][(int) ((at >>> (BITS * level)) & (SLOTS - 1))];
+        t.prev = sentinel.prev;
+        t.next = sentinel;
+        sentinel.prev.next = t;
+        sentinel.prev = t;
+    }
+
+    private static void unlink(Timer t) {
+        t.prev.next = t.next;
+        t.next.prev = t.prev;
+        t.prev = t.next = null;
+    }
+}
@@ -0,0 +1,159 @@
+package set;
+
+import java.util.Arrays;
+
+/**
+ * IntOrderedBitSet
+ *
+ * Ordered set of ints over a fixed universe [0, n], answering predecessor/successor like
+ * TreeSet.lower/higher but without boxing or tree nodes.
+ *
+ * Approach (hierarchical 64-ary bitset, van Emde Boas style):
+ * - Level 0 is a plain bitset: bit x is set iff x is in the set.
+ * - Bit w of level i+1 is set iff word w of level i is non-zero, up to a single top word.
+ * - successor(x): look in x's own word for a higher bit (mask + numberOfTrailingZeros). If there is
+ *   none, climb one level and repeat from the next word. Once a set bit is found, descend by taking
+ *   the lowest bit of each word below it. predecessor is the mirror image using numberOfLeadingZeros.
+ * - add/remove flip one bit per level, and stop climbing as soon as a word's emptiness is unchanged.
+ *
+ * Time Complexity: O(log64 n) for add/remove/contains/predecessor/successor
+ *   - 4 levels cover 16M positions, 6 levels cover the whole int range.
+ *
+ * Space Complexity: ~n/8 bytes (+1/64 for each summary level)
+ */
+public class IntOrderedBitSet {
+
+    private final int universe;         // largest storable value
+    private final long[][] levels;      // levels[0] = elements, levels[i+1] = summary of levels[i]
+    private int size;
+
+    public IntOrderedBitSet(int universe) {
+        if (universe < 0) throw new IllegalArgumentException("universe must be >= 0");
+        this.universe = universe;
+        int depth = 1;
+        for (long bits = universe + 1L; bits > 64; bits = (bits + 63) >>> 6) depth++;
+        levels = new long[depth][];
+        long bits = universe + 1L;
+        for (int l = 0; l < depth; l++) {
+            levels[l] = new long[(int) ((bits + 63) >>> 6)];
+            bits = levels[l].length;
+        }
+    }
+
+    /** @return true if x was not already present */
+    public boolean add(int x) {
+        checkRange(x);
+        long[] words = levels[0];
+        int w = x >>> 6;
+        if ((words[w] & (1L << x)) != 0) return false;
+        for (long[] level : levels) {
+            w = x >>> 6;
+            boolean wasEmpty = level[w] == 0;
+            level[w] |= 1L << x;
+            if (!wasEmpty) break;
+            x = w;
+        }
+        size++;
+        return true;
+    }
+
+    /** @return true if x was present */
+    public boolean remove(int x) {
+        checkRange(x);
+        int w = x >>> 6;
+        if ((levels[0][w] & (1L << x)) == 0) return false;
+        for (long[] level : levels) {
+            w = x >>> 6;
+            level[w] &= ~(1L << x);
+            if (level[w] != 0) break;
+            x = w;
+        }
+        size--;
+        return true;
+    }
+
+    public boolean contains(int x) {
+        return x >= 0 && x <= universe && (levels[0][x >>> 6] & (1L << x)) != 0;
+    }
+
+    /** Smallest element strictly greater than x, or -1. */
+    public int successor(int x) {
+        if (x >= universe) return -1;
+        long i = Math.max(x + 1L, 0);
+        for (int l = 0; l < levels.length; l++) {
+            long[] level = levels[l];
+            int w = (int) (i >>> 6);
+            if (w >= level.length) return -1;
+            long bits = level[w] & (-1L << i);
+            if (bits != 0) {
+                int pos = (w << 6) | Long.numberOfTrailingZeros(bits);
+                for (int d = l - 1; d >= 0; d--) pos = (pos << 6) | Long.numberOfTrailingZeros(levels[d][pos]);
+                return pos;
+            }
+            i = w + 1L;
+        }
+        return -1;
+    }
+
+    /** Largest element strictly less than x, or -1. */
+    public int predecessor(int x) {
+        if (x <= 0) return -1;
+        long i = Math.min(x - 1L, universe);
+        for (int l = 0; l < levels.length; l++) {
+            long[] level = levels[l];
+            int w = (int) (i >>> 6);
+            long bits = level[w] & (-1L >>> (63 - (i & 63)));
+            if (bits != 0) {
+                int pos = (w << 6) | (63 - Long.numberOfLeadingZeros(bits));
+                for (int d = l - 1; d >= 0; d--) pos = (pos << 6) | (63 - Long.numberOfLeadingZeros(levels[d][pos]));
+                return pos;
+            }
+            if (w == 0) return -1;
+            i = w - 1L;
+        }
+        return -1;
+    }
+
+    /** Smallest element, or -1 if empty. */
+    public int first() {
+        return contains(0) ? 0 : successor(0);
+    }
+
+    /** Largest element, or -1 if empty. */
+    public int last() {
+        return contains(universe) ? universe : predecessor(universe);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int universe() {
+        return universe;
+    }
+
+    public void clear() {
+        for (long[] level : levels) Arrays.fill(level, 0);
+        size = 0;
+    }
+
+    private void checkRange(int x) {
+        if (x < 0 || x > universe) throw new IndexOutOfBoundsException("value " + x + " outside [0, " + universe + "]");
+    }
+
+    public static void main(String[] args) {
+        IntOrderedBitSet set = new IntOrderedBitSet(1_000_000);
+        set.add(5);
+        set.add(70_000);
+        set.add(999_999);
+        System.out.println(set.successor(5));        // 70000
+        System.out.println(set.predecessor(70_000)); // 5
+        System.out.println(set.successor(999_999));  // -1
+        set.remove(70_000);
+        System.out.println(set.successor(5));        // 999999
+    }
+}
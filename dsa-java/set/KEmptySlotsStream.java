@@ -0,0 +1,177 @@
+package set;
+
+import java.util.Arrays;
+
+public class KEmptySlotsStream {
+
+    /** Called once per watched k, on the first day a gap of exactly k OFF bulbs appears. */
+    public interface Listener {
+        void onSatisfied(int k, int day);
+    }
+
+    /** Receives gaps as (left ON bulb, right ON bulb, OFF bulbs in between). */
+    public interface GapVisitor {
+        void visit(int left, int right, int size);
+    }
+
+    private static final int NONE = -1;
+
+    private final int n;
+    private final IntOrderedBitSet on;
+    private final IntOrderedBitSet sizesPresent;    // gap sizes with at least one gap
+
+    // A gap is identified by its left ON bulb; gaps of equal size form an intrusive doubly-linked list.
+    private final int[] gapSize;                    // by left bulb, NONE if no gap starts there
+    private final int[] gapNext, gapPrev;           // by left bulb
+    private final int[] head;                       // by size
+    private final int[] count;                      // by size
+
+    private final boolean[] watched;                // by k
+    private final int[] firstDay;                   // by k, NONE until satisfied
+    private final Listener listener;
+    private int day;
+
+    /**
+     * Online version of kEmptySlots: bulbs are turned on one event at a time (day = event number)
+     * and any number of k values are answered at once.
+     *
+     * Approach:
+     * - Keep ON positions in an IntOrderedBitSet. Turning on x with ON neighbors L < x < R splits the
+     *   gap (L, R) into (L, x) and (x, R); nothing else changes. Those two new gaps are the only
+     *   candidates for a k first being satisfied on this day (same reasoning as kEmptySlots).
+     * - Every current gap sits in a per-size bucket (linked list over primitive arrays keyed by the
+     *   left bulb), and the set of non-empty sizes is another IntOrderedBitSet, so gaps can be
+     *   reported by size without scanning all positions.
+     *
+     * Time Complexity: O(log64 n) per event (neighbor lookup + size-set update), O(1) per alert.
+     *   forEachGap is O(#gaps reported + #distinct sizes * log64 n).
+     *
+     * Space Complexity: O(n) primitive ints/bits, independent of the number of events.
+     *
+     * @param n        positions are 1..n
+     * @param ks       gap sizes to alert on
+     * @param listener notified when a watched k is first satisfied; may be null
+     */
+    public KEmptySlotsStream(int n, int[] ks, Listener listener) {
+        if (n < 0) throw new IllegalArgumentException("n must be >= 0");
+        this.n = n;
+        this.on = new IntOrderedBitSet(n);
+        this.sizesPresent = new IntOrderedBitSet(n);
+        this.gapSize = new int[n + 1];
+        this.gapNext = new int[n + 1];
+        this.gapPrev = new int[n + 1];
+        this.head = new int[n + 1];
+        this.count = new int[n + 1];
+        this.watched = new boolean[n + 1];
+        this.firstDay = new int[n + 1];
+        Arrays.fill(gapSize, NONE);
+        Arrays.fill(head, NONE);
+        Arrays.fill(firstDay, NONE);
+        for (int k : ks) {
+            if (k >= 0 && k <= n) watched[k] = true;    // a k outside [0, n-2] can never be satisfied
+        }
+        this.listener = listener;
+    }
+
+    public KEmptySlotsStream(int n, int... ks) {
+        this(n, ks, null);
+    }
+
+    /** Turns on one position; returns the day (1-based event number) it was assigned. */
+    public int turnOn(int position) {
+        if (position < 1 || position > n) throw new IllegalArgumentException("position " + position + " outside [1, " + n + "]");
+        if (!on.add(position)) throw new IllegalArgumentException("position " + position + " is already on");
+        day++;
+
+        int left = on.predecessor(position);
+        int right = on.successor(position);
+        if (left != NONE && right != NONE) unlinkGap(left);
+        if (left != NONE) linkGap(left, position - left - 1);
+        if (right != NONE) linkGap(position, right - position - 1);
+        return day;
+    }
+
+    /** Turns on positions[from..to) in order, one day each. */
+    public void turnOnAll(int[] positions, int from, int to) {
+        for (int i = from; i < to; i++) turnOn(positions[i]);
+    }
+
+    public void turnOnAll(int[] positions) {
+        turnOnAll(positions, 0, positions.length);
+    }
+
+    /** First day a gap of exactly k OFF bulbs existed, or -1 if k is not watched or not yet satisfied. */
+    public int firstDay(int k) {
+        return k >= 0 && k <= n ? firstDay[k] : NONE;
+    }
+
+    /** Number of gaps of exactly {@code size} OFF bulbs right now. */
+    public int gapCount(int size) {
+        return size >= 0 && size <= n ? count[size] : 0;
+    }
+
+    /** Visits every current gap, grouped by ascending size. */
+    public void forEachGap(GapVisitor visitor) {
+        for (int s = sizesPresent.first(); s != NONE; s = sizesPresent.successor(s)) {
+            forEachGap(s, visitor);
+        }
+    }
+
+    /** Visits every current gap of exactly {@code size} OFF bulbs. */
+    public void forEachGap(int size, GapVisitor visitor) {
+        if (size < 0 || size > n) return;
+        for (int left = head[size]; left != NONE; left = gapNext[left]) {
+            visitor.visit(left, left + size + 1, size);
+        }
+    }
+
+    public int day() {
+        return day;
+    }
+
+    private void linkGap(int left, int size) {
+        gapSize[left] = size;
+        gapPrev[left] = NONE;
+        gapNext[left] = head[size];
+        if (head[size] != NONE) gapPrev[head[size]] = left;
+        head[size] = left;
+        if (count[size]++ == 0) sizesPresent.add(size);
+
+        if (watched[size] && firstDay[size] == NONE) {
+            firstDay[size] = day;
+            if (listener != null) listener.onSatisfied(size, day);
+        }
+    }
+
+    private void unlinkGap(int left) {
+        int size = gapSize[left];
+        int prev = gapPrev[left], next = gapNext[left];
+        if (prev != NONE) gapNext[prev] = next;
+        else head[size] = next;
+        if (next != NONE) gapPrev[next] = prev;
+        gapSize[left] = NONE;
+        if (--count[size] == 0) sizesPresent.remove(size);
+    }
+
+    /** Same answer as KEmptySlotsUsingTreeSet.kEmptySlots, via the streaming engine. */
+    public static int kEmptySlots(int[] bulbs, int k) {
+        KEmptySlotsStream stream = new KEmptySlotsStream(bulbs.length, k);
+        for (int day = 0; day < bulbs.length && stream.firstDay(k) == NONE; day++) {
+            stream.turnOn(bulbs[day]);
+        }
+        return stream.firstDay(k);
+    }
+
+    public static void main(String[] args) {
+        int[] bulbs = {6, 2, 9, 4, 1, 8, 3, 7, 5, 10};
+
+        KEmptySlotsStream stream = new KEmptySlotsStream(bulbs.length, new int[]{0, 1, 2, 3},
+                (k, day) -> System.out.println("k=" + k + " first satisfied on day " + day));
+
+        stream.turnOnAll(bulbs, 0, 4);      // days 1..4: ON = {2, 4, 6, 9}
+        stream.forEachGap((l, r, size) -> System.out.println("gap " + l + ".." + r + " size " + size));
+
+        stream.turnOnAll(bulbs, 4, bulbs.length);
+        System.out.println("gaps of size 0 at the end: " + stream.gapCount(0));
+    }
+}
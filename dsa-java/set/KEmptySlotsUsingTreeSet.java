@@ -1,14 +1,13 @@
 package set;
 
-import java.util.TreeSet;
-
 public class KEmptySlotsUsingTreeSet {
 
     /**
      * Earliest day when there exist two ON bulbs with exactly k OFF bulbs between them.
      *
      * Approach:
-     * - Maintain a sorted set (TreeSet) of positions that are currently ON.
+     * - Maintain a sorted set of positions that are currently ON. Positions are a fixed universe [1..n],
+     *   so an IntOrderedBitSet (hierarchical bitset) replaces the TreeSet: no boxing, no tree nodes.
      * - For each day, turn on position x, then:
      *     - Check the nearest ON bulb to the left (lower(x)).
      *     - Check the nearest ON bulb to the right (higher(x)).
@@ -16,36 +15,35 @@ public class KEmptySlotsUsingTreeSet {
      *   return the current day (1-indexed).
      *
      * Correctness intuition:
-     * - TreeSet gives immediate neighbors. If a closer ON bulb existed between a candidate pair,
+     * - predecessor/successor give immediate neighbors. If a closer ON bulb existed between a candidate pair,
      *   it would be the neighbor instead, so all bulbs strictly between the neighbors are OFF.
      *
-     * Time Complexity: O(n log n)
-     *   - For n days, each insert is O(log n) and each neighbor query (lower/higher) is O(log n).
-     *   - Per day work is O(log n), total O(n log n).
+     * Time Complexity: O(n log64 n)
+     *   - Each insert and neighbor query touches one word per bitset level (4 levels up to 16M bulbs).
      *
-     * Space Complexity: O(n)
-     *   - Up to n positions stored in the TreeSet.
+     * Space Complexity: O(n) bits
+     *   - ~n/8 bytes for the bitset versus ~40 bytes per position for a TreeSet<Integer>.
      *
      * @param bulbs permutation where bulbs[i] is the position turned on on day i+1 (1-indexed positions)
      * @param k     required number of OFF bulbs between two ON bulbs
      * @return earliest day (1-indexed) satisfying the condition, or -1 if none exists
      */
     public static int kEmptySlots(int[] bulbs, int k){
-        TreeSet<Integer> on = new TreeSet<>();
+        IntOrderedBitSet on = new IntOrderedBitSet(bulbs.length);
         for(int day = 0; day < bulbs.length; day++){
             int x = bulbs[day];
 
             on.add(x);
 
-            Integer lower = on.lower(x);
+            int lower = on.predecessor(x);
 
-            if(lower !=null && x-lower-1==k){
+            if(lower != -1 && x-lower-1==k){
                 return day+1;
             }
 
-            Integer higher = on.higher(x);
+            int higher = on.successor(x);
 
-            if(higher !=null && higher-x-1==k){
+            if(higher != -1 && higher-x-1==k){
                 return day+1;
             }
         }
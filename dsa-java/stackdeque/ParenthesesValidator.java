@@ -51,6 +51,7 @@ public class ParenthesesValidator {
     /**
      * Validates whether the given string has balanced brackets for the set: {}, [], ().
      * Non-bracket characters are ignored.
+     * For inputs that do not fit in a String (files, channels), see StreamingBracketValidator.
      *
      * @param s input string; may be null (treated as balanced)
      * @return true iff the brackets in the string are balanced
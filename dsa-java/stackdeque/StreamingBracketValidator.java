@@ -0,0 +1,322 @@
+package stackdeque;
+
+/*
+ * Problem Statement:
+ * ------------------
+ * Same rules as ParenthesesValidator ((), [], {} balanced and properly nested, everything else
+ * ignored), but for inputs too large to hold in a String: multi-gigabyte config/JSON dumps read
+ * from a Reader, a ReadableByteChannel or a memory-mapped file. Instead of true/false, report
+ * where the first error is.
+ *
+ * Approach (sequential):
+ * ----------------------
+ * Same stack algorithm, but the stack holds one byte per open bracket (1, 2, 3 for ( [ {) in a
+ * growable byte[], so nothing is allocated per bracket. Input is consumed in fixed-size buffers
+ * (or mmap windows) and scanning stops at the first error.
+ * Byte sources are treated as ASCII-compatible (UTF-8, Latin-1...): bytes >= 0x80 never equal a
+ * bracket, so multi-byte characters are skipped safely. Positions are byte offsets for byte
+ * sources and char offsets for a Reader.
+ *
+ * Approach (parallel):
+ * --------------------
+ * Any chunk reduces to "unmatched closings, then unmatched openings", e.g. "]x)(a{" -> "])" + "({".
+ * Two adjacent chunks A, B combine by matching A's open stack (top first) against B's leading
+ * closings in order:
+ *   - a type mismatch is an error at that closing's position;
+ *   - leftover closings of B are appended to A's closings, B's openings are pushed on top of A's.
+ * The combine is associative, so chunks are scanned in parallel and merged up a fork-join tree.
+ * A chunk's internal mismatch is kept as its error (scanning of that chunk stops there), but its
+ * leading closings are kept too: a prefix may still turn one of them into an earlier error.
+ * At the root: any leftover closing is an unexpected close, else the mismatch (if any), else
+ * leftover openings mean unclosed brackets at end of input. This yields exactly the first error
+ * the sequential scan would report.
+ *
+ * Complexity:
+ * -----------
+ * Let n be the input length, d the maximum nesting depth, p the number of cores.
+ * - Sequential: Time O(n), Space O(d) bytes + one buffer.
+ * - Parallel:   Time O(n / p + combine), combine cost is bounded by the unmatched sequences, which
+ *               are tiny for typical (shallow, balanced) documents.
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class StreamingBracketValidator {
+
+    public enum ErrorKind {
+        /** A closing bracket of the wrong type, e.g. the ']' in "(]". */
+        MISMATCHED_CLOSE,
+        /** A closing bracket with nothing open, e.g. the ')' in "())". */
+        UNEXPECTED_CLOSE,
+        /** Input ended with brackets still open; position is the input length. */
+        UNCLOSED_OPEN
+    }
+
+    /** Outcome of a validation: error == null means balanced (position is then -1). */
+    public record Result(ErrorKind error, long position) {
+        static final Result BALANCED = new Result(null, -1);
+
+        public boolean isBalanced() {
+            return error == null;
+        }
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long MAP_WINDOW = 1L << 30;
+    private static final long DEFAULT_CHUNK = 16L << 20;
+
+    // 1..3 = opening ( [ {, -1..-3 = matching closing, 0 = not a bracket.
+    private static final byte[] TYPE = new byte[128];
+    static {
+        TYPE['('] = 1; TYPE['['] = 2; TYPE['{'] = 3;
+        TYPE[')'] = -1; TYPE[']'] = -2; TYPE['}'] = -3;
+    }
+
+    // ------------------- Sequential -------------------
+
+    public static Result validate(Reader in) throws IOException {
+        Segment s = new Segment(0, true);
+        char[] buf = new char[BUFFER_SIZE];
+        for (int n; s.error == null && (n = in.read(buf)) != -1; ) s.scan(buf, n);
+        return s.result();
+    }
+
+    public static Result validate(ReadableByteChannel in) throws IOException {
+        Segment s = new Segment(0, true);
+        ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        while (s.error == null && in.read(buf) != -1) {
+            buf.flip();
+            s.scan(buf);
+            buf.clear();
+        }
+        return s.result();
+    }
+
+    /** Scans the file through read-only mmap windows of up to 1 GiB. */
+    public static Result validate(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            Segment s = new Segment(0, true);
+            long size = ch.size();
+            for (long from = 0; from < size && s.error == null; from += MAP_WINDOW) {
+                s.scan(ch.map(FileChannel.MapMode.READ_ONLY, from, Math.min(MAP_WINDOW, size - from)));
+            }
+            return s.result();
+        }
+    }
+
+    // ------------------- Parallel -------------------
+
+    public static Result validateParallel(Path file) throws IOException {
+        return validateParallel(file, ForkJoinPool.commonPool(), DEFAULT_CHUNK);
+    }
+
+    /** Splits the file into chunks of about {@code chunkBytes}, each scanned from its own mmap window. */
+    public static Result validateParallel(Path file, ForkJoinPool pool, long chunkBytes) throws IOException {
+        if (chunkBytes <= 0 || chunkBytes > Integer.MAX_VALUE) throw new IllegalArgumentException("chunkBytes out of range");
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            return pool.invoke(new ReduceTask(ch, null, 0, ch.size(), chunkBytes)).result();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** Validates buf[position, limit) in parallel; positions in the result are relative to buf.position(). */
+    public static Result validateParallel(ByteBuffer buf) {
+        ByteBuffer view = buf.slice();
+        return ForkJoinPool.commonPool().invoke(new ReduceTask(null, view, 0, view.remaining(), DEFAULT_CHUNK)).result();
+    }
+
+    private static final class ReduceTask extends RecursiveTask<Segment> {
+        private final FileChannel ch;       // either a file channel...
+        private final ByteBuffer buf;       // ...or an in-memory buffer
+        private final long from, to, chunk;
+
+        ReduceTask(FileChannel ch, ByteBuffer buf, long from, long to, long chunk) {
+            this.ch = ch;
+            this.buf = buf;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected Segment compute() {
+            if (to - from <= chunk) {
+                Segment s = new Segment(from, false);
+                s.scan(window());
+                return s;
+            }
+            long mid = (from + to) >>> 1;
+            ReduceTask right = new ReduceTask(ch, buf, mid, to, chunk);
+            right.fork();
+            Segment left = new ReduceTask(ch, buf, from, mid, chunk).compute();
+            return left.append(right.join());
+        }
+
+        private ByteBuffer window() {
+            if (buf != null) return buf.slice((int) from, (int) (to - from));
+            try {
+                return ch.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // ------------------- Reduction state -------------------
+
+    /**
+     * Scan state of one contiguous range: unmatched closings (type + position), then the stack of
+     * unmatched openings. A strict segment starts at the beginning of the input, so an unmatched
+     * closing is reported straight away instead of being recorded.
+     */
+    private static final class Segment {
+        private final boolean strict;
+        private final ByteStack opens = new ByteStack();
+        private final ByteStack closeTypes = new ByteStack();
+        private long[] closePos = new long[8];
+        private long pos;                   // absolute offset of the next input element
+        private ErrorKind error;
+        private long errorPos = -1;
+
+        Segment(long start, boolean strict) {
+            this.pos = start;
+            this.strict = strict;
+        }
+
+        void scan(ByteBuffer buf) {
+            for (int i = buf.position(), end = buf.limit(); i < end; i++, pos++) {
+                byte b = buf.get(i);
+                if (b > 0 && TYPE[b] != 0 && !accept(TYPE[b])) return;
+            }
+        }
+
+        void scan(char[] buf, int n) {
+            for (int i = 0; i < n; i++, pos++) {
+                char c = buf[i];
+                if (c < 128 && TYPE[c] != 0 && !accept(TYPE[c])) return;
+            }
+        }
+
+        // Returns false once an error has been recorded; pos is the offset of t.
+        private boolean accept(byte t) {
+            if (t > 0) {
+                opens.push(t);
+                return true;
+            }
+            if (!opens.isEmpty()) {
+                if (opens.pop() == -t) return true;
+                return fail(ErrorKind.MISMATCHED_CLOSE, pos);
+            }
+            if (strict) return fail(ErrorKind.UNEXPECTED_CLOSE, pos);
+            if (closeTypes.size() == closePos.length) closePos = Arrays.copyOf(closePos, closePos.length * 2);
+            closePos[closeTypes.size()] = pos;
+            closeTypes.push((byte) -t);
+            return true;
+        }
+
+        private boolean fail(ErrorKind kind, long at) {
+            error = kind;
+            errorPos = at;
+            return false;
+        }
+
+        /** Concatenates the range that directly follows this one; returns this. */
+        Segment append(Segment next) {
+            if (error != null) return this;             // next only holds later positions
+            int n = next.closeTypes.size(), i = 0;
+            for (; i < n && !opens.isEmpty(); i++) {
+                if (opens.pop() != next.closeTypes.get(i)) {
+                    fail(ErrorKind.MISMATCHED_CLOSE, next.closePos[i]);
+                    return this;
+                }
+            }
+            for (; i < n; i++) {
+                if (closeTypes.size() == closePos.length) closePos = Arrays.copyOf(closePos, closePos.length * 2);
+                closePos[closeTypes.size()] = next.closePos[i];
+                closeTypes.push(next.closeTypes.get(i));
+            }
+            if (next.error != null) {
+                fail(next.error, next.errorPos);
+                return this;
+            }
+            opens.pushAll(next.opens);
+            pos = next.pos;
+            return this;
+        }
+
+        Result result() {
+            if (closeTypes.size() > 0) return new Result(ErrorKind.UNEXPECTED_CLOSE, closePos[0]);
+            if (error != null) return new Result(error, errorPos);
+            if (!opens.isEmpty()) return new Result(ErrorKind.UNCLOSED_OPEN, pos);
+            return Result.BALANCED;
+        }
+    }
+
+    /** Growable byte stack; one byte per open bracket instead of a boxed Character. */
+    static final class ByteStack {
+        private byte[] data = new byte[64];
+        private int size;
+
+        void push(byte b) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = b;
+        }
+
+        void pushAll(ByteStack other) {
+            if (size + other.size > data.length) data = Arrays.copyOf(data, Math.max(size * 2, size + other.size));
+            System.arraycopy(other.data, 0, data, size, other.size);
+            size += other.size;
+        }
+
+        byte pop() {
+            return data[--size];
+        }
+
+        byte get(int i) {
+            return data[i];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    // Quick demo: the same answers in every mode.
+    public static void main(String[] args) throws IOException {
+        System.out.println(validate(new StringReader("abc{[()]}xyz")));     // balanced
+        System.out.println(validate(new StringReader("([)]")));             // MISMATCHED_CLOSE at 2
+        System.out.println(validate(new StringReader("())")));              // UNEXPECTED_CLOSE at 2
+        System.out.println(validate(new StringReader("{[(")));              // UNCLOSED_OPEN at 3
+
+        // A generated JSON-like dump with one stray ']' near the end.
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) sb.append("{\"id\":").append(i).append(",\"tags\":[\"a\",\"b\"]}\n");
+        sb.insert(sb.length() - 10, ']');
+        Path file = Files.createTempFile("brackets", ".json");
+        try {
+            Files.write(file, sb.toString().getBytes(StandardCharsets.UTF_8));
+            System.out.println(validate(file));
+            System.out.println(validateParallel(file, ForkJoinPool.commonPool(), 64 * 1024));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -1,5 +1,20 @@
 package stringop;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
 /**
  * Problem:
  * Given a binary string `str` (no leading zeros; str[0] == '1'),
@@ -18,20 +33,53 @@ package stringop;
  *
  * Time:  O(n)
  * Space: O(1)
+ *
+ * Word-at-a-time form (for huge inputs):
+ * The carry starts at 0 and, once set, never clears. It is set at the lowest 1-bit (index j) and
+ * stays 1 up to the MSB (index n-1). Every bit below the MSB costs 1 step (/2), plus:
+ *   - bits below j:           b + carry == 0 → nothing extra
+ *   - bit j:                  b + carry == 1 → +1
+ *   - bits in (j, n-1):       b + carry == 1 exactly when b == 0 → +1 per zero bit
+ *   - final carry at the MSB  → +1
+ * With P = number of 1-bits, zeros in (j, n-1) = (n - j - 2) - (P - 2), so
+ *   steps = 2n + 1 - j - P     (P >= 2)
+ *   steps = n - 1              (P == 1, a power of two: only halvings)
+ * So the whole recurrence needs just n, P and j: Long.bitCount per 64-bit word for P and
+ * numberOfTrailingZeros/LeadingZeros for j and n. A chunk of the input reduces to
+ * (ones, lowest 1-bit); two chunks combine by adding ones and taking the lower chunk's lowest
+ * 1-bit if it has one. That is the carry-propagating prefix: it tells each chunk whether a carry
+ * arrives from below. Chunks are reduced in parallel with fork-join.
+ *
+ * Word-at-a-time Time:  O(n / 64) words, split across cores for large inputs
+ * Word-at-a-time Space: O(1) beyond the input (mmap for files)
  */
 public class BinaryToOneStepCounter {
 
+    private static final long PARALLEL_WORDS = 1 << 16;         // below this, one thread is faster
+    private static final long FILE_CHUNK = 16L << 20;           // bytes per mmap window / task
+    private static final long ASCII_ZEROS = 0x3030303030303030L;
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final VarHandle BE_LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    /** Reduction of one chunk: number of 1-bits and absolute index of its lowest 1-bit (-1 if none). */
+    private record Chunk(long ones, long lowestOne) {
+        // lower covers smaller bit indices than higher
+        static Chunk combine(Chunk lower, Chunk higher) {
+            return new Chunk(lower.ones + higher.ones, lower.lowestOne >= 0 ? lower.lowestOne : higher.lowestOne);
+        }
+    }
+
     /**
      * Counts how many operations are needed to reduce the binary string `str` to "1".
      * Uses an O(n) carry-propagation counting approach (no mutation of the input).
      */
-    public static int countStepsToOne(String str) {
+    public static long countStepsToOne(String str) {
         if (str == null || str.isEmpty() || str.charAt(0) != '1') {
             throw new IllegalArgumentException("Invalid input: non-empty binary with str[0] == '1' required.");
         }
         if (str.equals("1")) return 0;
 
-        int steps = 0;
+        long steps = 0;
         int carry = 0;
 
         // Process bits from LSB to just before MSB
@@ -57,10 +105,164 @@ public class BinaryToOneStepCounter {
         return steps;
     }
 
+    /**
+     * Same count for a number given as little-endian 64-bit words, as in BitSet.toLongArray():
+     * bit i is (words[i >>> 6] >>> i) & 1. The highest set bit is the MSB.
+     */
+    public static long countStepsToOne(long[] words) {
+        int top = words.length - 1;
+        while (top >= 0 && words[top] == 0) top--;
+        if (top < 0) throw new IllegalArgumentException("Invalid input: number must be >= 1.");
+        long bitLength = 64L * top + 64 - Long.numberOfLeadingZeros(words[top]);
+
+        Chunk c = top + 1 < PARALLEL_WORDS
+                ? reduceWords(words, 0, top + 1)
+                : ForkJoinPool.commonPool().invoke(new WordsTask(words, 0, top + 1));
+        return steps(bitLength, c);
+    }
+
+    public static long countStepsToOne(BitSet bits) {
+        return countStepsToOne(bits.toLongArray());
+    }
+
+    /** Big-endian unsigned magnitude (as in BigInteger.toByteArray()); leading zero bytes are allowed. */
+    public static long countStepsToOne(byte[] magnitude) {
+        int n = magnitude.length;
+        long[] words = new long[(n + 7) >>> 3];
+        int w = 0, end = n;
+        for (; end >= 8; end -= 8) words[w++] = (long) BE_LONG.get(magnitude, end - 8);
+        for (int i = 0; i < end; i++) words[w] |= (magnitude[i] & 0xFFL) << (8 * (end - 1 - i));
+        return countStepsToOne(words);
+    }
+
+    /**
+     * Same count for a file of ASCII '0'/'1' characters (MSB first, optional trailing newline),
+     * memory-mapped and scanned 8 characters per step, in parallel across cores.
+     */
+    public static long countStepsToOne(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            while (size > 0 && isLineEnd(byteAt(ch, size - 1))) size--;
+            if (size == 0 || byteAt(ch, 0) != '1') {
+                throw new IllegalArgumentException("Invalid input: non-empty binary with str[0] == '1' required.");
+            }
+            // Characters are indexed from the left; character i is bit (size - 1 - i).
+            Chunk c = ForkJoinPool.commonPool().invoke(new FileTask(ch, 0, size));
+            long lastOneChar = c.lowestOne;            // FileTask reports the right-most '1'
+            return steps(size, new Chunk(c.ones, size - 1 - lastOneChar));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static long steps(long bitLength, Chunk c) {
+        return c.ones == 1 ? bitLength - 1 : 2 * bitLength + 1 - c.lowestOne - c.ones;
+    }
+
+    private static Chunk reduceWords(long[] words, int from, int to) {
+        long ones = 0, lowest = -1;
+        for (int i = from; i < to; i++) {
+            long x = words[i];
+            if (x == 0) continue;
+            if (lowest < 0) lowest = 64L * i + Long.numberOfTrailingZeros(x);
+            ones += Long.bitCount(x);
+        }
+        return new Chunk(ones, lowest);
+    }
+
+    private static final class WordsTask extends RecursiveTask<Chunk> {
+        private final long[] words;
+        private final int from, to;
+
+        WordsTask(long[] words, int from, int to) {
+            this.words = words;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Chunk compute() {
+            if (to - from <= PARALLEL_WORDS) return reduceWords(words, from, to);
+            int mid = (from + to) >>> 1;
+            WordsTask high = new WordsTask(words, mid, to);
+            high.fork();
+            Chunk low = new WordsTask(words, from, mid).compute();
+            return Chunk.combine(low, high.join());
+        }
+    }
+
+    // Reduces characters [from, to); lowestOne is the index of the right-most '1' character.
+    private static final class FileTask extends RecursiveTask<Chunk> {
+        private final FileChannel ch;
+        private final long from, to;
+
+        FileTask(FileChannel ch, long from, long to) {
+            this.ch = ch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Chunk compute() {
+            if (to - from <= FILE_CHUNK) {
+                try {
+                    return reduceAscii(ch.map(FileChannel.MapMode.READ_ONLY, from, to - from), from);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            long mid = (from + to) >>> 1;
+            FileTask right = new FileTask(ch, mid, to);
+            right.fork();
+            Chunk left = new FileTask(ch, from, mid).compute();
+            Chunk r = right.join();
+            // Right-most '1' wins here: characters run from MSB (left) to LSB (right).
+            return new Chunk(left.ones + r.ones, r.lowestOne >= 0 ? r.lowestOne : left.lowestOne);
+        }
+    }
+
+    // 8 characters per step: XOR with "00000000" leaves 0 or 1 in each byte; anything else is invalid.
+    private static Chunk reduceAscii(ByteBuffer buf, long base) {
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        int n = buf.remaining(), i = 0;
+        long ones = 0, last = -1;
+        for (; i + 8 <= n; i += 8) {
+            long x = buf.getLong(i) ^ ASCII_ZEROS;
+            if ((x & ~LOW_BITS) != 0) throw invalidChar(base + i);
+            if (x != 0) {
+                ones += Long.bitCount(x);
+                last = base + i + ((63 - Long.numberOfLeadingZeros(x)) >>> 3);
+            }
+        }
+        for (; i < n; i++) {
+            int b = buf.get(i) - '0';
+            if ((b & ~1) != 0) throw invalidChar(base + i);
+            if (b == 1) {
+                ones++;
+                last = base + i;
+            }
+        }
+        return new Chunk(ones, last);
+    }
+
+    private static IllegalArgumentException invalidChar(long near) {
+        return new IllegalArgumentException("Invalid input: non-binary character near offset " + near);
+    }
+
+    private static boolean isLineEnd(byte b) {
+        return b == '\n' || b == '\r';
+    }
+
+    private static byte byteAt(FileChannel ch, long pos) throws IOException {
+        ByteBuffer one = ByteBuffer.allocate(1);
+        if (ch.read(one, pos) != 1) throw new IOException("Short read at " + pos);
+        return one.get(0);
+    }
+
     /* ----------------
        Demo / Quick Run
        ---------------- */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         String[] tests = {
                 "1",          // 0
                 "10",         // 1
@@ -75,5 +277,21 @@ public class BinaryToOneStepCounter {
         for (String str : tests) {
             System.out.printf("str = %s -> steps = %d%n", str, countStepsToOne(str));
         }
+
+        // Same number as packed bits, as bytes, and as a memory-mapped ASCII file.
+        String big = tests[tests.length - 1];
+        BitSet bits = new BitSet();
+        for (int i = 0; i < big.length(); i++) {
+            if (big.charAt(big.length() - 1 - i) == '1') bits.set(i);
+        }
+        System.out.println("BitSet -> " + countStepsToOne(bits));
+        System.out.println("byte[] -> " + countStepsToOne(new BigInteger(big, 2).toByteArray()));
+        Path file = Files.createTempFile("bits", ".txt");
+        try {
+            Files.writeString(file, big + "\n");
+            System.out.println("file   -> " + countStepsToOne(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
     }
 }
@@ -0,0 +1,62 @@
+package common;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free, allocation-free log-linear histogram (HDR-style): each power of two is split into 16
+ * linear sub-buckets, so any recorded value is reported within ~6%.
+ *
+ * Shared by the payment metrics and the consistent-hashing ring metrics; compile either with
+ * -sourcepath pointing at system-design.
+ */
+public class LatencyHistogram {
+    // Values reach 2^63 - 1 (exponent 62), so the last bucket starts at (62 - SUB_BITS + 1) * SUB.
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long value) {
+        counts.getAndIncrement(indexOf(Math.max(0, value)));
+    }
+
+    public long count() {
+        long c = 0;
+        for (int i = 0; i < BUCKETS; i++) c += counts.get(i);
+        return c;
+    }
+
+    // Upper bound of the bucket holding the p-th percentile (0 < p <= 100); 0 if empty.
+    public long percentile(double p) {
+        long total = count();
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(total * p / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return upperBound(i);
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+    }
+
+    private static int indexOf(long v) {
+        if (v < SUB) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);          // >= SUB_BITS
+        int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB - 1);
+        return (exp - SUB_BITS + 1) * SUB + sub;
+    }
+
+    // Largest value mapping to idx: bucket start plus (width - 1), which is Long.MAX_VALUE for the
+    // last bucket rather than wrapping.
+    private static long upperBound(int idx) {
+        if (idx < SUB) return idx;
+        int shift = idx / SUB - 1;
+        long sub = idx % SUB;
+        return ((SUB + sub) << shift) + ((1L << shift) - 1);
+    }
+}
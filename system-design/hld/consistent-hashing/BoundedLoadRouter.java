@@ -0,0 +1,140 @@
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Consistent hashing with bounded loads (Mirrokni et al.) on top of a {@link ConsistentHashRing}.
+ *
+ * Each node may hold at most ceil((1 + epsilon) * its weighted share of the load) in-flight
+ * keys/sessions, so a weight-2 node gets twice the bound of a weight-1 node. assign walks
+ * clockwise from the key and takes the first node under capacity, so a hot key spills to its
+ * successors instead of piling onto one node. assign returns a {@link Lease}; callers must release()
+ * it when the request or session ends.
+ *
+ * Remove nodes through {@link #removeNode} so their counter is dropped with them. Nodes removed
+ * directly on the ring are pruned the next time assign sees a new ring version. A lease points at
+ * the counter it was charged to, not at the host, so releasing a lease taken before its node was
+ * removed is a no-op even if a node with the same host has rejoined with a fresh counter.
+ *
+ * Each node's load is one AtomicLong: the capacity check and increment are one CAS, so a node never
+ * exceeds its bound, and dropping a counter swaps in a DROPPED marker, so a release either lands
+ * before the drop (and is subtracted from the total with it) or sees the marker and does nothing.
+ * The cluster total is a LongAdder, as every acquire and release touches it.
+ */
+final class BoundedLoadRouter {
+    private static final long DROPPED = Long.MIN_VALUE;
+
+    /** One unit of load charged to node; give it back with {@link #release}. */
+    record Lease(StorageNode node, AtomicLong load) {}
+
+    private final ConsistentHashRing ring;
+    private final double epsilon;
+    private final ConcurrentHashMap<String, AtomicLong> loads = new ConcurrentHashMap<>();
+    private final LongAdder total = new LongAdder();
+    private volatile long seenVersion = -1;
+
+    BoundedLoadRouter(ConsistentHashRing ring, double epsilon) {
+        if (!(epsilon > 0)) throw new IllegalArgumentException("epsilon must be positive");
+        this.ring = ring;
+        this.epsilon = epsilon;
+    }
+
+    // --- pick the first node clockwise with spare capacity and charge one unit of load to it ---
+    public Lease assign(String item) {
+        RingSnapshot snap = ring.snapshot();
+        if (snap.isEmpty()) throw new IllegalStateException("ring is empty");
+        if (snap.version() != seenVersion) prune(snap);
+        long demand = total.sum() + 1;
+        long pos = ring.hashFunction().toSlot(item, ring.totalSlots());
+
+        int len = snap.vnodeCount();
+        int start = snap.upperBound(pos);
+        for (int step = 0; step < len; step++) {
+            int idx = start + step;
+            if (idx >= len) idx -= len;
+            int owner = snap.owner(idx);
+            StorageNode node = snap.node(owner);
+            AtomicLong load = tryCharge(node, capacity(demand, snap.weight(owner), snap.totalWeight()));
+            if (load != null) return new Lease(node, load);
+        }
+        // Unreachable while every cap >= weighted share + 1; fall back to the plain owner rather than fail.
+        StorageNode node = snap.node(snap.owner(start == len ? 0 : start));
+        return new Lease(node, tryCharge(node, Long.MAX_VALUE));
+    }
+
+    // --- request/session finished: give the unit of load back ---
+    // A lease on a counter dropped since (node removed) is a no-op.
+    public void release(Lease lease) {
+        AtomicLong load = lease.load();
+        for (long c = load.get(); c != DROPPED && c > 0; c = load.get()) {
+            if (load.compareAndSet(c, c - 1)) {
+                total.decrement();
+                return;
+            }
+        }
+    }
+
+    // --- remove the node from the ring and drop its load counter ---
+    public long removeNode(StorageNode node) {
+        long pos = ring.removeNode(node);
+        drop(node.host);
+        return pos;
+    }
+
+    public long loadOf(StorageNode node) {
+        AtomicLong load = loads.get(node.host);
+        long c = load == null ? DROPPED : load.get();
+        return c == DROPPED ? 0 : c;
+    }
+
+    public long totalLoad() {
+        return total.sum();
+    }
+
+    // Bound for the next assignment to node: ceil((1 + eps) * (total + 1) * weight / totalWeight).
+    public long capacity(StorageNode node) {
+        RingSnapshot snap = ring.snapshot();
+        int idx = snap.indexOf(node);
+        if (idx < 0) throw new IllegalStateException("node does not exist");
+        return capacity(total.sum() + 1, snap.weight(idx), snap.totalWeight());
+    }
+
+    private long capacity(long demand, int weight, long totalWeight) {
+        return (long) Math.ceil((1 + epsilon) * demand * weight / totalWeight);
+    }
+
+    // Drops counters of hosts that are no longer on the ring.
+    private void prune(RingSnapshot snap) {
+        Set<String> live = new HashSet<>();
+        for (int i = 0; i < snap.nodeCount(); i++) live.add(snap.node(i).host);
+        for (String host : loads.keySet()) {
+            if (!live.contains(host)) drop(host);
+        }
+        seenVersion = snap.version();
+    }
+
+    private void drop(String host) {
+        AtomicLong load = loads.remove(host);
+        if (load != null) total.add(-load.getAndSet(DROPPED));
+    }
+
+    // Charges one unit to node's current counter if it is below cap; returns that counter, or null if full.
+    private AtomicLong tryCharge(StorageNode node, long cap) {
+        while (true) {
+            AtomicLong load = loads.get(node.host);
+            if (load == null) load = loads.computeIfAbsent(node.host, h -> new AtomicLong());
+            long c = load.get();
+            if (c == DROPPED) {                    // dropped under us: the next lookup finds a fresh counter
+                loads.remove(node.host, load);
+                continue;
+            }
+            if (c >= cap) return null;
+            if (load.compareAndSet(c, c + 1)) {
+                total.increment();
+                return load;
+            }
+        }
+    }
+}
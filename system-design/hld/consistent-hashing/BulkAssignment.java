@@ -0,0 +1,68 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Result of routing a batch of keys against one ring snapshot: key indices grouped by node.
+ *
+ * Stored as a CSR-style layout (offsets + one index array) so a batch of millions of keys costs two
+ * int arrays instead of a boxed list per node. Indices are positions in the input, in input order.
+ */
+final class BulkAssignment {
+    private final long version;
+    private final StorageNode[] nodes;
+    private final int[] offsets;                   // nodes.length + 1 entries
+    private final int[] keyIndices;                // grouped by node, ascending within each group
+
+    BulkAssignment(long version, StorageNode[] nodes, int[] offsets, int[] keyIndices) {
+        this.version = version;
+        this.nodes = nodes;
+        this.offsets = offsets;
+        this.keyIndices = keyIndices;
+    }
+
+    // Snapshot version every key in the batch was routed with.
+    public long version() {
+        return version;
+    }
+
+    public int keyCount() {
+        return keyIndices.length;
+    }
+
+    // Indices of the keys routed to node (empty if the node got none or is not in the snapshot).
+    public int[] keysFor(StorageNode node) {
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i].host.equals(node.host)) {
+                int[] r = new int[offsets[i + 1] - offsets[i]];
+                System.arraycopy(keyIndices, offsets[i], r, 0, r.length);
+                return r;
+            }
+        }
+        return new int[0];
+    }
+
+    public int countFor(StorageNode node) {
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i].host.equals(node.host)) return offsets[i + 1] - offsets[i];
+        }
+        return 0;
+    }
+
+    // node -> key indices, only for nodes that received at least one key
+    public Map<StorageNode, int[]> asMap() {
+        Map<StorageNode, int[]> m = new LinkedHashMap<>();
+        for (int i = 0; i < nodes.length; i++) {
+            if (offsets[i + 1] > offsets[i]) m.put(nodes[i], keysFor(nodes[i]));
+        }
+        return m;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("BulkAssignment{version=").append(version);
+        for (int i = 0; i < nodes.length; i++) {
+            sb.append(", ").append(nodes[i]).append('=').append(offsets[i + 1] - offsets[i]);
+        }
+        return sb.append('}').toString();
+    }
+}
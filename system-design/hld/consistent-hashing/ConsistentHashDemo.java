@@ -1,12 +1,19 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 
 public class ConsistentHashDemo {
     public static void main(String[] args) {
         // Use a big ring. For demo’s sake, keep it smaller, e.g. 1e9.
-        ConsistentHashRing ring = new ConsistentHashRing(1_000_000_000L);
+        // 128 virtual nodes per unit of weight smooths out the load across a handful of hosts.
+        ConsistentHashRing ring = new ConsistentHashRing(1_000_000_000L, HashAlgorithm.MURMUR3, 128);
+        ring.metrics().setEnabled(true);                // metrics are opt-in
 
-        StorageNode A = new StorageNode("A", "10.0.0.1");
-        StorageNode B = new StorageNode("B", "10.0.0.2");
-        StorageNode C = new StorageNode("C", "10.0.0.3");
+        StorageNode A = new StorageNode("A", "10.0.0.1", "zone-a");
+        StorageNode B = new StorageNode("B", "10.0.0.2", "zone-b");
+        StorageNode C = new StorageNode("C", "10.0.0.3", "zone-c");
 
         ring.addNode(A);
         ring.addNode(B);
@@ -17,10 +24,68 @@ public class ConsistentHashDemo {
         System.out.println("K2 -> " + ring.assign("K2"));
 
         // Add a node: only keys in the slice before its position move
-        StorageNode D = new StorageNode("D", "10.0.0.4");
-        ring.addNode(D);
+        // D is a bigger host: weight 2 gives it twice as many virtual nodes
+        StorageNode D = new StorageNode("D", "10.0.0.4", "zone-a");
+        RingSnapshot before = ring.snapshot();
+        ring.addNode(D, 2);
+        System.out.println("vnodes: " + ring.vnodeCount());
+
+        // Only the slot ranges D took over need to move
+        MigrationPlan plan = ring.planMigration(before, ring.snapshot());
+        System.out.printf("add D: %d ranges, %.1f%% of slots move%n", plan.moves().size(), 100 * plan.movedFraction());
 
         // Remove a node: only keys belonging to that node move to the next clockwise node
         ring.removeNode(B);
+
+        // route() also reports the ring version the decision was made on
+        System.out.println("K2 -> " + ring.route("K2"));
+
+        // 3 replicas on distinct hosts, spread across zones where possible
+        StorageNode[] replicas = new StorageNode[3];
+        int r = ring.assignN("K1", 3, replicas, true);
+        System.out.println("K1 replicas -> " + Arrays.toString(Arrays.copyOf(replicas, r)));
+
+        // Bulk routing: group a batch of keys by node against a single snapshot
+        String[] batch = new String[100_000];
+        for (int i = 0; i < batch.length; i++) batch[i] = "key-" + i;
+        System.out.println(ring.assignAll(batch));
+
+        // Balance and latency metrics (also available over JMX via ring.metrics().registerMBean("demo"))
+        // assign latency is sampled (1 in 64 calls by default), so route the batch one key at a time.
+        for (String key : batch) ring.assign(key);
+        RingMetrics.Snapshot stats = ring.metrics().snapshot();
+        System.out.printf("ownership max/mean=%.3f stddev/mean=%.3f, last change moved %.1f%%, assign p99=%dns (%d samples)%n",
+                stats.ownershipMaxOverMean(), stats.ownershipStdDevOverMean(),
+                100 * stats.lastChangeMovedFraction(), stats.assignP99Nanos(), ring.metrics().getLatencySampleCount());
+
+        // Persist the ring and serve lookups straight from the memory-mapped file
+        try {
+            Path file = Files.createTempFile("ring", ".snap");
+            RingSnapshotFile.write(ring, file);
+            MappedRing mapped = RingSnapshotFile.open(file);
+            System.out.println("mapped v" + mapped.version() + ": K2 -> " + mapped.assign("K2"));
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // Bounded loads: a hot key spills to the next node once its owner reaches (1 + 0.25) x average
+        BoundedLoadRouter bounded = new BoundedLoadRouter(ring, 0.25);
+        BoundedLoadRouter.Lease[] held = new BoundedLoadRouter.Lease[30];
+        for (int i = 0; i < held.length; i++) held[i] = bounded.assign("hot-key");
+        System.out.printf("hot-key loads: A=%d C=%d D=%d (caps %d/%d/%d, D has weight 2)%n",
+                bounded.loadOf(A), bounded.loadOf(C), bounded.loadOf(D),
+                bounded.capacity(A), bounded.capacity(C), bounded.capacity(D));
+        for (BoundedLoadRouter.Lease l : held) bounded.release(l);
+
+        // Compare placement engines on the same change: 10 nodes -> 11 nodes
+        String[] sample = Arrays.copyOf(batch, 50_000);
+        PlacementEngine[] engines = {
+                new ConsistentHashRing(1L << 62, HashAlgorithm.MURMUR3, 160),
+                new JumpHashEngine(), new RendezvousHashEngine(), new MaglevEngine()};
+        for (PlacementEngine e : engines) {
+            for (int i = 0; i < 10; i++) e.addNode(new StorageNode("N" + i, "10.1.0." + i));
+            System.out.println(PlacementStats.measure(e, sample, x -> x.addNode(new StorageNode("N10", "10.1.0.10"))));
+        }
     }
 }
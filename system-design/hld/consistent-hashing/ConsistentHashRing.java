@@ -1,70 +1,248 @@
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
-final class ConsistentHashRing {
+/**
+ * Consistent hash ring with weighted virtual nodes.
+ *
+ * Thread-safety: the ring state is an immutable {@link RingSnapshot} behind one atomic reference.
+ * assign/route read the current snapshot without locking; addNode/removeNode build a new snapshot and
+ * publish it with compareAndSet (retrying if another change won the race).
+ */
+final class ConsistentHashRing implements PlacementEngine {
     private final long totalSlots;                 // e.g., a large number
-    private final List<Long> keys = new ArrayList<>();     // ring positions
-    private final List<StorageNode> nodes = new ArrayList<>(); // aligned with keys
+    private final HashFunction hash;               // key/node -> slot
+    private final int vnodesPerWeight;             // virtual nodes per unit of node weight
+    private static final int BULK_LEAF_SIZE = 1 << 13;   // keys per fork-join leaf task
+
+    private final AtomicReference<RingSnapshot> current = new AtomicReference<>(RingSnapshot.EMPTY);
+    private final RingMetrics metrics = new RingMetrics(this);
 
     ConsistentHashRing(long totalSlots) {
+        this(totalSlots, HashAlgorithm.MURMUR3);
+    }
+
+    // Pass HashAlgorithm.SHA256 to reproduce positions of rings built before pluggable hashing.
+    ConsistentHashRing(long totalSlots, HashFunction hash) {
+        this(totalSlots, hash, 1);
+    }
+
+    ConsistentHashRing(long totalSlots, HashFunction hash, int vnodesPerWeight) {
+        if (totalSlots <= 0) throw new IllegalArgumentException("totalSlots must be positive");
+        if (vnodesPerWeight <= 0) throw new IllegalArgumentException("vnodesPerWeight must be positive");
         this.totalSlots = totalSlots;
+        this.hash = hash;
+        this.vnodesPerWeight = vnodesPerWeight;
+    }
+
+    // Resume from a previously built snapshot (e.g. one loaded by RingSnapshotFile) without rehashing.
+    ConsistentHashRing(long totalSlots, HashFunction hash, int vnodesPerWeight, RingSnapshot initial) {
+        this(totalSlots, hash, vnodesPerWeight);
+        current.set(initial);
     }
 
-    // --- assign(key) => node to the immediate right (O(log n)) ---
+    @Override
+    public String name() {
+        return "ring";
+    }
+
+    // --- assign(key) => node to the immediate right (O(log V), lock-free) ---
+    @Override
     public StorageNode assign(String item) {
-        if (nodes.isEmpty()) throw new IllegalStateException("ring is empty");
-        long pos = HashUtil.hashToSlot(item, totalSlots);
-        int idx = upperBound(keys, pos);          // first key > pos
-        idx = idx % keys.size();                  // wrap to 0 if past end
-        return nodes.get(idx);
+        RingMetrics m = metrics;
+        if (!m.isEnabled()) return current.get().nodeForSlot(hash.toSlot(item, totalSlots));
+        long t0 = m.shouldTime() ? System.nanoTime() : 0;
+        StorageNode node = current.get().nodeForSlot(hash.toSlot(item, totalSlots));
+        m.recordAssign(node, t0);
+        return node;
     }
 
-    // --- add node: find its position, insert at sorted index (O(log n)) ---
-    public long addNode(StorageNode node) {
-        if (keys.size() >= totalSlots) throw new IllegalStateException("hash space is full");
-        long key = HashUtil.hashToSlot(node.host, totalSlots);
-        int idx = upperBound(keys, key);          // insertion point to keep sorted
+    // --- like assign, but also reports which topology version made the decision ---
+    public RoutingResult route(String item) {
+        RingSnapshot snap = current.get();
+        return new RoutingResult(snap.nodeForSlot(hash.toSlot(item, totalSlots)), snap.version());
+    }
+
+    // --- replicas: n distinct physical nodes clockwise from the key, filled into out (no allocation) ---
+    // Returns the number of nodes written (< n only if the ring has fewer than n physical nodes).
+    public int assignN(String item, int n, StorageNode[] out) {
+        return assignN(item, n, out, false);
+    }
+
+    // spreadZones: prefer nodes in zones not used yet; fall back to same-zone nodes if zones run out.
+    public int assignN(String item, int n, StorageNode[] out, boolean spreadZones) {
+        return current.get().successors(hash.toSlot(item, totalSlots), n, out, spreadZones);
+    }
 
-        // collision check (optional; rarely happens with large space)
-        if (idx > 0 && keys.get(idx - 1) == key) {
-            throw new IllegalStateException("collision occurred");
+    // --- bulk routing: every key in the batch is routed against one snapshot ---
+    public BulkAssignment assignAll(String[] keys) {
+        return assignAll(keys, ForkJoinPool.commonPool());
+    }
+
+    // Inputs larger than one leaf are hashed/searched in parallel on pool; grouping is a counting sort.
+    public BulkAssignment assignAll(String[] keys, ForkJoinPool pool) {
+        RingSnapshot snap = current.get();
+        if (snap.isEmpty()) throw new IllegalStateException("ring is empty");
+
+        int[] owner = new int[keys.length];
+        RouteTask root = new RouteTask(snap, keys, owner, 0, keys.length);
+        if (keys.length <= BULK_LEAF_SIZE) root.compute(); else pool.invoke(root);
+
+        int n = snap.nodeCount();
+        int[] offsets = new int[n + 1];
+        for (int o : owner) offsets[o + 1]++;
+        for (int i = 0; i < n; i++) offsets[i + 1] += offsets[i];
+        int[] fill = Arrays.copyOf(offsets, n);
+        int[] grouped = new int[keys.length];
+        for (int i = 0; i < owner.length; i++) grouped[fill[owner[i]]++] = i;
+        return new BulkAssignment(snap.version(), snap.nodes(), offsets, grouped);
+    }
+
+    // Indices refer to iteration order.
+    public BulkAssignment assignAll(Iterable<String> keys) {
+        List<String> list = new ArrayList<>();
+        keys.forEach(list::add);
+        return assignAll(list.toArray(new String[0]));
+    }
+
+    // Indices refer to encounter order.
+    public BulkAssignment assignAll(Stream<String> keys) {
+        return assignAll(keys.toArray(String[]::new));
+    }
+
+    private final class RouteTask extends RecursiveAction {
+        private final RingSnapshot snap;
+        private final String[] keys;
+        private final int[] owner;
+        private final int from, to;
+
+        RouteTask(RingSnapshot snap, String[] keys, int[] owner, int from, int to) {
+            this.snap = snap;
+            this.keys = keys;
+            this.owner = owner;
+            this.from = from;
+            this.to = to;
         }
 
-        // (Data migration happens in practice here: move keys in (prevKey, key] to this node)
-        keys.add(idx, key);
-        nodes.add(idx, node);
-        return key;
+        @Override
+        protected void compute() {
+            if (to - from <= BULK_LEAF_SIZE) {
+                for (int i = from; i < to; i++) owner[i] = snap.ownerIndexForSlot(hash.toSlot(keys[i], totalSlots));
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RouteTask(snap, keys, owner, from, mid), new RouteTask(snap, keys, owner, mid, to));
+        }
     }
 
-    // --- remove node: locate its exact key, then remove (O(log n)) ---
-    public long removeNode(StorageNode node) {
-        if (keys.isEmpty()) throw new IllegalStateException("hash space is empty");
-        long key = HashUtil.hashToSlot(node.host, totalSlots);
-        int idx = lowerBound(keys, key);          // first index >= key
-        if (idx >= keys.size() || !keys.get(idx).equals(key)) {
-            throw new IllegalStateException("node does not exist");
+    // --- exact slot ranges that change owner between two snapshots of this ring ---
+    public MigrationPlan planMigration(RingSnapshot from, RingSnapshot to) {
+        return MigrationPlan.between(from, to, totalSlots);
+    }
+
+    // Balance / latency metrics for this ring (off until metrics().setEnabled(true); see RingMetrics).
+    public RingMetrics metrics() {
+        return metrics;
+    }
+
+    public RingSnapshot snapshot() {
+        return current.get();
+    }
+
+    public long version() {
+        return current.get().version();
+    }
+
+    @Override
+    public long addNode(StorageNode node) {
+        return addNode(node, 1);
+    }
+
+    // --- add node with weight * vnodesPerWeight virtual nodes: merge its sorted vnodes into the ring (O(V + v log v)) ---
+    // Returns the node's primary position (vnode 0, hashed from host alone as in a single-position ring).
+    public long addNode(StorageNode node, int weight) {
+        if (weight <= 0) throw new IllegalArgumentException("weight must be positive");
+        int v = Math.multiplyExact(weight, vnodesPerWeight);
+        long primary = primary(node);
+        long[] vn = vnodePositions(node, v);
+
+        // (Data migration: take snapshot() before and after, then planMigration(before, after))
+        while (true) {
+            RingSnapshot snap = current.get();
+            if (snap.vnodeCount() + (long) v > totalSlots) throw new IllegalStateException("hash space is full");
+            RingSnapshot next = snap.withNode(node, weight, vn);
+            if (current.compareAndSet(snap, next)) {
+                metrics.recordChange(snap, next);
+                return primary;
+            }
         }
-        // (Data migration happens in practice here: keys from this node go to next clockwise node)
-        keys.remove(idx);
-        nodes.remove(idx);
-        return key;
-    }
-
-    // Helpers: lowerBound / upperBound on sorted List<Long>
-    private static int lowerBound(List<Long> a, long x) {
-        int lo = 0, hi = a.size();
-        while (lo < hi) {
-            int mid = (lo + hi) >>> 1;
-            if (a.get(mid) < x) lo = mid + 1; else hi = mid;
+    }
+
+    // --- remove node: drop all of its vnodes in one pass and compact the node table (O(V)) ---
+    @Override
+    public long removeNode(StorageNode node) {
+        // (Data migration: take snapshot() before and after, then planMigration(before, after))
+        while (true) {
+            RingSnapshot snap = current.get();
+            RingSnapshot next = snap.withoutNode(node);
+            if (current.compareAndSet(snap, next)) {
+                metrics.recordChange(snap, next);
+                return primary(node);
+            }
         }
-        return lo;
     }
-    private static int upperBound(List<Long> a, long x) {
-        int lo = 0, hi = a.size();
-        while (lo < hi) {
-            int mid = (lo + hi) >>> 1;
-            if (a.get(mid) <= x) lo = mid + 1; else hi = mid;
+
+    @Override
+    public int nodeCount() {
+        return current.get().nodeCount();
+    }
+
+    public int vnodeCount() {
+        return current.get().vnodeCount();
+    }
+
+    public int weightOf(StorageNode node) {
+        RingSnapshot snap = current.get();
+        int idx = snap.indexOf(node);
+        return idx < 0 ? 0 : snap.weight(idx);
+    }
+
+    long totalSlots() {
+        return totalSlots;
+    }
+
+    HashFunction hashFunction() {
+        return hash;
+    }
+
+    int vnodesPerWeight() {
+        return vnodesPerWeight;
+    }
+
+    private long primary(StorageNode node) {
+        return hash.toSlot(node.host, totalSlots);
+    }
+
+    // Sorted, distinct vnode positions of a node; vnode 0 hashes the bare host.
+    // Two of its own vnodes on one position would own the same range, so the duplicate is dropped.
+    private long[] vnodePositions(StorageNode node, int v) {
+        long[] vn = new long[v];
+        vn[0] = primary(node);
+        for (int i = 1; i < v; i++) vn[i] = hash.toSlot(vnodeKey(node, i), totalSlots);
+        Arrays.sort(vn);
+        int distinct = v == 0 ? 0 : 1;
+        for (int i = 1; i < v; i++) {
+            if (vn[i] != vn[distinct - 1]) vn[distinct++] = vn[i];
         }
-        return lo;
+        return distinct == v ? vn : Arrays.copyOf(vn, distinct);
+    }
+
+    // Key for the i-th virtual node of a physical node (i >= 1; vnode 0 hashes the bare host).
+    private static String vnodeKey(StorageNode node, int i) {
+        return node.host + "#" + i;
     }
-}
\ No newline at end of file
+}
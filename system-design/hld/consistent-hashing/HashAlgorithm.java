@@ -0,0 +1,34 @@
+/**
+ * Built-in hash functions.
+ *
+ * MURMUR3 / XXHASH64 hash the UTF-16 code units of the key directly (no byte[] encoding, no allocation).
+ * SHA256 reproduces the original ring positions (UTF-8 bytes, unsigned 256-bit digest mod totalSlots).
+ *
+ * Each constant has a fixed id for persisted formats; never reuse or renumber an id.
+ */
+enum HashAlgorithm implements HashFunction {
+    MURMUR3(1) {
+        @Override public long hash64(CharSequence s) { return HashUtil.murmur3(s, 0); }
+    },
+    XXHASH64(2) {
+        @Override public long hash64(CharSequence s) { return HashUtil.xxHash64(s, 0); }
+    },
+    SHA256(3) {
+        @Override public long hash64(CharSequence s) { return HashUtil.sha256Low64(s); }
+        @Override public long toSlot(CharSequence s, long totalSlots) { return HashUtil.sha256Slot(s, totalSlots); }
+    };
+
+    final int id;
+
+    HashAlgorithm(int id) {
+        this.id = id;
+    }
+
+    // null if no algorithm has this id
+    static HashAlgorithm byId(int id) {
+        for (HashAlgorithm a : values()) {
+            if (a.id == id) return a;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,13 @@
+/**
+ * Maps a key to a position on the ring.
+ *
+ * Implementations must be stateless/thread-safe: the ring calls them from every routing thread.
+ * {@link #hash64} should not allocate; {@link #toSlot} reduces the hash into [0, totalSlots).
+ */
+interface HashFunction {
+    long hash64(CharSequence s);
+
+    default long toSlot(CharSequence s, long totalSlots) {
+        return HashUtil.reduce(hash64(s), totalSlots);
+    }
+}
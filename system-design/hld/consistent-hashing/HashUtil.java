@@ -1,18 +1,242 @@
-import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
-import java.util.*;
+import java.security.NoSuchAlgorithmException;
 
 final class HashUtil {
+    private HashUtil() {}
+
+    // SHA-256 mod totalSlots: the original placement, kept so existing ring positions can be reproduced.
     static long hashToSlot(String s, long totalSlots) {
+        return HashAlgorithm.SHA256.toSlot(s, totalSlots);
+    }
+
+    static long hashToSlot(CharSequence s, long totalSlots, HashFunction fn) {
+        return fn.toSlot(s, totalSlots);
+    }
+
+    // --- slot reduction: maps a uniform 64-bit hash into [0, totalSlots) with one multiply (no division) ---
+    static long reduce(long hash, long totalSlots) {
+        return unsignedMultiplyHigh(hash, totalSlots);
+    }
+
+    static long unsignedMultiplyHigh(long x, long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // Murmur3 x64_128 (low 64 bits) over the UTF-16LE code units of s.
+    // ------------------------------------------------------------------------------------------
+    private static final long M_C1 = 0x87c37b91114253d5L;
+    private static final long M_C2 = 0x4cf5ad432745937fL;
+
+    static long murmur3(CharSequence s, long seed) {
+        final int n = s.length();
+        long h1 = seed, h2 = seed;
+        int i = 0;
+        for (; i + 8 <= n; i += 8) {              // 16-byte blocks = 8 chars
+            long k1 = chars4(s, i);
+            long k2 = chars4(s, i + 4);
+
+            k1 *= M_C1; k1 = Long.rotateLeft(k1, 31); k1 *= M_C2; h1 ^= k1;
+            h1 = Long.rotateLeft(h1, 27); h1 += h2; h1 = h1 * 5 + 0x52dce729;
+
+            k2 *= M_C2; k2 = Long.rotateLeft(k2, 33); k2 *= M_C1; h2 ^= k2;
+            h2 = Long.rotateLeft(h2, 31); h2 += h1; h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        int rem = n - i;                          // 0..7 chars of tail
+        if (rem > 0) {
+            long k1 = 0, k2 = 0;
+            for (int j = 0; j < rem; j++) {
+                long c = s.charAt(i + j);
+                if (j < 4) k1 ^= c << (16 * j); else k2 ^= c << (16 * (j - 4));
+            }
+            if (rem > 4) {
+                k2 *= M_C2; k2 = Long.rotateLeft(k2, 33); k2 *= M_C1; h2 ^= k2;
+            }
+            k1 *= M_C1; k1 = Long.rotateLeft(k1, 31); k1 *= M_C2; h1 ^= k1;
+        }
+
+        long len = 2L * n;
+        h1 ^= len; h2 ^= len;
+        h1 += h2; h2 += h1;
+        h1 = fmix64(h1); h2 = fmix64(h2);
+        h1 += h2;
+        return h1;
+    }
+
+    static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // xxHash64 over the UTF-16LE code units of s.
+    // ------------------------------------------------------------------------------------------
+    private static final long P1 = 0x9E3779B185EBCA87L;
+    private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long P3 = 0x165667B19E3779F9L;
+    private static final long P4 = 0x85EBCA77C2B2AE63L;
+    private static final long P5 = 0x27D4EB2F165667C5L;
+
+    static long xxHash64(CharSequence s, long seed) {
+        final int n = s.length();
+        int i = 0;
+        long h;
+        if (n >= 16) {                            // 32-byte stripes = 16 chars
+            long v1 = seed + P1 + P2, v2 = seed + P2, v3 = seed, v4 = seed - P1;
+            for (; i + 16 <= n; i += 16) {
+                v1 = xxRound(v1, chars4(s, i));
+                v2 = xxRound(v2, chars4(s, i + 4));
+                v3 = xxRound(v3, chars4(s, i + 8));
+                v4 = xxRound(v4, chars4(s, i + 12));
+            }
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = xxMerge(h, v1);
+            h = xxMerge(h, v2);
+            h = xxMerge(h, v3);
+            h = xxMerge(h, v4);
+        } else {
+            h = seed + P5;
+        }
+        h += 2L * n;
+
+        for (; i + 4 <= n; i += 4) {              // 8-byte words
+            h ^= xxRound(0, chars4(s, i));
+            h = Long.rotateLeft(h, 27) * P1 + P4;
+        }
+        if (i + 2 <= n) {                         // 4-byte word
+            long w = (long) s.charAt(i) | ((long) s.charAt(i + 1) << 16);
+            h ^= w * P1;
+            h = Long.rotateLeft(h, 23) * P2 + P3;
+            i += 2;
+        }
+        if (i < n) {                              // last char = 2 single bytes
+            char c = s.charAt(i);
+            h ^= (c & 0xFFL) * P5;
+            h = Long.rotateLeft(h, 11) * P1;
+            h ^= ((c >>> 8) & 0xFFL) * P5;
+            h = Long.rotateLeft(h, 11) * P1;
+        }
+
+        h ^= h >>> 33;
+        h *= P2;
+        h ^= h >>> 29;
+        h *= P3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    private static long xxRound(long acc, long input) {
+        acc += input * P2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * P1;
+    }
+
+    private static long xxMerge(long h, long v) {
+        h ^= xxRound(0, v);
+        return h * P1 + P4;
+    }
+
+    // 4 chars packed little-endian into a long (= 8 bytes of UTF-16LE)
+    private static long chars4(CharSequence s, int i) {
+        return (long) s.charAt(i)
+                | ((long) s.charAt(i + 1) << 16)
+                | ((long) s.charAt(i + 2) << 32)
+                | ((long) s.charAt(i + 3) << 48);
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // SHA-256 compatibility path: per-thread digest and buffers, no BigInteger.
+    // ------------------------------------------------------------------------------------------
+    private static final class Sha256State {
+        final MessageDigest md;
+        byte[] in = new byte[64];
+        final byte[] out = new byte[32];
+
+        Sha256State() {
+            try {
+                md = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static final ThreadLocal<Sha256State> SHA256 = ThreadLocal.withInitial(Sha256State::new);
+
+    // Digests UTF-8(s) into the thread's out buffer (same bytes as String.getBytes(UTF_8)).
+    private static byte[] sha256(CharSequence s) {
+        Sha256State st = SHA256.get();
+        int len = encodeUtf8(s, st);
+        st.md.update(st.in, 0, len);
         try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] digest = md.digest(s.getBytes(StandardCharsets.UTF_8));
-            // Convert the unsigned 256-bit value to BigInteger (positive).
-            BigInteger big = new BigInteger(1, digest);
-            return big.mod(BigInteger.valueOf(totalSlots)).longValue();
+            st.md.digest(st.out, 0, st.out.length);
         } catch (Exception e) {
-            throw new RuntimeException(e);
+            throw new IllegalStateException(e);
+        }
+        return st.out;
+    }
+
+    static long sha256Slot(CharSequence s, long totalSlots) {
+        if (totalSlots <= 0) throw new ArithmeticException("totalSlots must be positive");
+        byte[] d = sha256(s);
+        // Horner's rule over the unsigned big-endian digest: r = (r * 256 + b) mod totalSlots
+        long r = 0;
+        if (totalSlots <= (1L << 55)) {
+            for (byte b : d) r = ((r << 8) | (b & 0xFF)) % totalSlots;
+        } else {
+            // r * 256 could overflow: shift in one bit at a time, r < totalSlots < 2^63 keeps 2r+1 in unsigned range
+            for (byte b : d) {
+                for (int bit = 7; bit >= 0; bit--) {
+                    r = (r << 1) | ((b >>> bit) & 1);
+                    if (Long.compareUnsigned(r, totalSlots) >= 0) r -= totalSlots;
+                }
+            }
+        }
+        return r;
+    }
+
+    static long sha256Low64(CharSequence s) {
+        byte[] d = sha256(s);
+        long h = 0;
+        for (int i = 24; i < 32; i++) h = (h << 8) | (d[i] & 0xFF);
+        return h;
+    }
+
+    private static int encodeUtf8(CharSequence s, Sha256State st) {
+        final int n = s.length();
+        if (st.in.length < n * 3) st.in = new byte[Math.max(n * 3, st.in.length * 2)];
+        byte[] b = st.in;
+        int p = 0;
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                b[p++] = (byte) c;
+            } else if (c < 0x800) {
+                b[p++] = (byte) (0xC0 | (c >> 6));
+                b[p++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                char d = i + 1 < n ? s.charAt(i + 1) : 0;
+                if (Character.isHighSurrogate(c) && Character.isLowSurrogate(d)) {
+                    int cp = Character.toCodePoint(c, d);
+                    b[p++] = (byte) (0xF0 | (cp >> 18));
+                    b[p++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    b[p++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    b[p++] = (byte) (0x80 | (cp & 0x3F));
+                    i++;
+                } else {
+                    b[p++] = '?';             // malformed surrogate: same replacement as String.getBytes
+                }
+            } else {
+                b[p++] = (byte) (0xE0 | (c >> 12));
+                b[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                b[p++] = (byte) (0x80 | (c & 0x3F));
+            }
         }
+        return p;
     }
 }
@@ -0,0 +1,74 @@
+import java.util.Arrays;
+
+/**
+ * Jump consistent hash (Lamping & Veach): O(1) memory beyond the node list, O(log n) expected time.
+ *
+ * Buckets are numbered 0..n-1, so only removing the last-added node is minimal-movement. Removing
+ * any other node moves the last node into its bucket, which also remaps the last node's keys.
+ */
+final class JumpHashEngine implements PlacementEngine {
+    private final HashFunction hash;
+    private volatile StorageNode[] buckets = new StorageNode[0];   // copy-on-write
+
+    JumpHashEngine() {
+        this(HashAlgorithm.MURMUR3);
+    }
+
+    JumpHashEngine(HashFunction hash) {
+        this.hash = hash;
+    }
+
+    @Override
+    public String name() {
+        return "jump";
+    }
+
+    @Override
+    public StorageNode assign(String item) {
+        StorageNode[] b = buckets;
+        if (b.length == 0) throw new IllegalStateException("no nodes");
+        return b[jump(hash.hash64(item), b.length)];
+    }
+
+    @Override
+    public synchronized long addNode(StorageNode node) {
+        if (indexOf(buckets, node) >= 0) throw new IllegalStateException("node already present: " + node.host);
+        StorageNode[] b = Arrays.copyOf(buckets, buckets.length + 1);
+        b[b.length - 1] = node;
+        buckets = b;
+        return b.length - 1;
+    }
+
+    @Override
+    public synchronized long removeNode(StorageNode node) {
+        StorageNode[] cur = buckets;
+        int idx = indexOf(cur, node);
+        if (idx < 0) throw new IllegalStateException("node does not exist");
+        StorageNode[] b = Arrays.copyOf(cur, cur.length - 1);
+        if (idx < b.length) b[idx] = cur[cur.length - 1];   // last bucket takes over the freed index
+        buckets = b;
+        return idx;
+    }
+
+    @Override
+    public int nodeCount() {
+        return buckets.length;
+    }
+
+    static int jump(long key, int numBuckets) {
+        long b = -1, j = 0;
+        while (j < numBuckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    static int indexOf(StorageNode[] nodes, StorageNode node) {
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i].host.equals(node.host)) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,107 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Maglev hashing (Eisenbud et al.): a prime-sized lookup table filled from each node's permutation,
+ * so routing is one hash plus one array read. Rebuilding the table costs O(M) per membership change.
+ *
+ * Movement is close to minimal but not exact; the table should be much larger than the node count
+ * (M >= 100 * n keeps imbalance around 1%).
+ */
+final class MaglevEngine implements PlacementEngine {
+    static final int DEFAULT_TABLE_SIZE = 65_537;   // prime
+
+    private final HashFunction hash;
+    private final int tableSize;
+
+    // Immutable state swapped as a unit: node list and the table of indices into it.
+    private static final class State {
+        final StorageNode[] nodes;
+        final int[] table;
+
+        State(StorageNode[] nodes, int[] table) {
+            this.nodes = nodes;
+            this.table = table;
+        }
+    }
+
+    private volatile State state = new State(new StorageNode[0], new int[0]);
+
+    MaglevEngine() {
+        this(HashAlgorithm.MURMUR3, DEFAULT_TABLE_SIZE);
+    }
+
+    // tableSize must be prime so every skip value generates a full permutation.
+    MaglevEngine(HashFunction hash, int tableSize) {
+        if (tableSize < 2 || !BigInteger.valueOf(tableSize).isProbablePrime(32)) {
+            throw new IllegalArgumentException("tableSize must be prime");
+        }
+        this.hash = hash;
+        this.tableSize = tableSize;
+    }
+
+    @Override
+    public String name() {
+        return "maglev";
+    }
+
+    @Override
+    public StorageNode assign(String item) {
+        State s = state;
+        if (s.nodes.length == 0) throw new IllegalStateException("no nodes");
+        return s.nodes[s.table[(int) HashUtil.reduce(hash.hash64(item), tableSize)]];
+    }
+
+    @Override
+    public synchronized long addNode(StorageNode node) {
+        State s = state;
+        if (JumpHashEngine.indexOf(s.nodes, node) >= 0) throw new IllegalStateException("node already present: " + node.host);
+        StorageNode[] ns = Arrays.copyOf(s.nodes, s.nodes.length + 1);
+        ns[ns.length - 1] = node;
+        state = new State(ns, populate(ns));
+        return ns.length - 1;
+    }
+
+    @Override
+    public synchronized long removeNode(StorageNode node) {
+        State s = state;
+        int idx = JumpHashEngine.indexOf(s.nodes, node);
+        if (idx < 0) throw new IllegalStateException("node does not exist");
+        StorageNode[] ns = new StorageNode[s.nodes.length - 1];
+        System.arraycopy(s.nodes, 0, ns, 0, idx);
+        System.arraycopy(s.nodes, idx + 1, ns, idx, ns.length - idx);
+        state = new State(ns, ns.length == 0 ? new int[0] : populate(ns));
+        return idx;
+    }
+
+    @Override
+    public int nodeCount() {
+        return state.nodes.length;
+    }
+
+    // Each node claims its next preferred free entry in turn until the table is full.
+    private int[] populate(StorageNode[] ns) {
+        int n = ns.length, m = tableSize;
+        long[] offset = new long[n], skip = new long[n], next = new long[n];
+        for (int i = 0; i < n; i++) {
+            long h = hash.hash64(ns[i].host);
+            offset[i] = Long.remainderUnsigned(h, m);
+            skip[i] = Long.remainderUnsigned(HashUtil.fmix64(h), m - 1) + 1;
+        }
+        int[] table = new int[m];
+        Arrays.fill(table, -1);
+        int filled = 0;
+        while (true) {
+            for (int i = 0; i < n; i++) {
+                int c = (int) ((offset[i] + next[i] * skip[i]) % m);
+                while (table[c] >= 0) {
+                    next[i]++;
+                    c = (int) ((offset[i] + next[i] * skip[i]) % m);
+                }
+                table[c] = i;
+                next[i]++;
+                if (++filled == m) return table;
+            }
+        }
+    }
+}
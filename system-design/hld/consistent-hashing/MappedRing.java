@@ -0,0 +1,73 @@
+import java.nio.MappedByteBuffer;
+
+/**
+ * Read-only ring served straight from a memory-mapped {@link RingSnapshotFile}.
+ *
+ * Positions and owners are never copied onto the heap: assign binary-searches the mapping, so a
+ * router can serve traffic as soon as the file is mapped. Processes mapping the same file share its
+ * pages through the OS page cache. Call {@link #toRing()} to get a mutable ring back.
+ */
+final class MappedRing {
+    private final MappedByteBuffer buf;
+    private final long version;
+    private final long totalSlots;
+    private final HashAlgorithm hash;
+    private final int vnodesPerWeight;
+    private final StorageNode[] nodes;
+    private final int[] weights;
+    private final int vnodeCount;
+    private final int ownersOffset;
+
+    MappedRing(MappedByteBuffer buf, long version, long totalSlots, HashAlgorithm hash, int vnodesPerWeight,
+               StorageNode[] nodes, int[] weights, int vnodeCount) {
+        this.buf = buf;
+        this.version = version;
+        this.totalSlots = totalSlots;
+        this.hash = hash;
+        this.vnodesPerWeight = vnodesPerWeight;
+        this.nodes = nodes;
+        this.weights = weights;
+        this.vnodeCount = vnodeCount;
+        this.ownersOffset = RingSnapshotFile.HEADER_SIZE + 8 * vnodeCount;
+    }
+
+    // --- assign(key) => node to the immediate right, searched in the mapped positions (O(log V)) ---
+    public StorageNode assign(String item) {
+        if (vnodeCount == 0) throw new IllegalStateException("ring is empty");
+        long pos = hash.toSlot(item, totalSlots);
+        int lo = 0, hi = vnodeCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (buf.getLong(RingSnapshotFile.HEADER_SIZE + 8 * mid) <= pos) lo = mid + 1; else hi = mid;
+        }
+        if (lo == vnodeCount) lo = 0;             // wrap to 0 if past end
+        return nodes[buf.getInt(ownersOffset + 4 * lo)];
+    }
+
+    public long version() {
+        return version;
+    }
+
+    // CRC32C from the header (validated at open): changes whenever the file's contents do.
+    public long checksum() {
+        return buf.getLong(48);
+    }
+
+    public int vnodeCount() {
+        return vnodeCount;
+    }
+
+    public int nodeCount() {
+        return nodes.length;
+    }
+
+    // Copies the mapped arrays into a regular (mutable) ring; no node is rehashed.
+    public ConsistentHashRing toRing() {
+        long[] positions = new long[vnodeCount];
+        int[] owners = new int[vnodeCount];
+        buf.duplicate().position(RingSnapshotFile.HEADER_SIZE).order(buf.order()).asLongBuffer().get(positions);
+        buf.duplicate().position(ownersOffset).order(buf.order()).asIntBuffer().get(owners);
+        RingSnapshot snap = RingSnapshot.of(version, positions, owners, nodes.clone(), weights.clone());
+        return new ConsistentHashRing(totalSlots, hash, vnodesPerWeight, snap);
+    }
+}
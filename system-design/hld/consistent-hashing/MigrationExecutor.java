@@ -0,0 +1,80 @@
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Streams a key set through a {@link MigrationPlan} and moves only the keys whose slot changed owner.
+ *
+ * Keys are read on the calling thread (no materialisation of the key set); moves run on a fixed pool
+ * with at most {@code concurrency} in flight and are paced to {@code maxKeysPerSecond} (0 = unlimited).
+ */
+final class MigrationExecutor {
+
+    /** Copies one key from its old node to its new node. */
+    interface KeyMover {
+        void move(String key, StorageNode from, StorageNode to) throws Exception;
+    }
+
+    /** Outcome of one run; firstError is null when every move succeeded. */
+    record Result(long scanned, long moved, long failed, Throwable firstError) {
+    }
+
+    private final HashFunction hash;
+    private final long totalSlots;
+    private final int concurrency;
+    private final long intervalNanos;              // min spacing between move starts
+
+    MigrationExecutor(ConsistentHashRing ring, int concurrency, long maxKeysPerSecond) {
+        if (concurrency <= 0) throw new IllegalArgumentException("concurrency must be positive");
+        if (maxKeysPerSecond < 0) throw new IllegalArgumentException("maxKeysPerSecond must be >= 0");
+        this.hash = ring.hashFunction();
+        this.totalSlots = ring.totalSlots();
+        this.concurrency = concurrency;
+        this.intervalNanos = maxKeysPerSecond == 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / maxKeysPerSecond;
+    }
+
+    Result execute(MigrationPlan plan, Iterator<String> keys, KeyMover mover) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicLong moved = new AtomicLong(), failed = new AtomicLong();
+        AtomicReference<Throwable> firstError = new AtomicReference<>();
+        long scanned = 0;
+        long nextStart = System.nanoTime();
+        try {
+            while (keys.hasNext()) {
+                String key = keys.next();
+                scanned++;
+                SlotMove m = plan.find(hash.toSlot(key, totalSlots));
+                if (m == null) continue;
+
+                if (intervalNanos > 0) {
+                    long wait = nextStart - System.nanoTime();
+                    if (wait > 0) LockSupport.parkNanos(wait);
+                    nextStart = Math.max(nextStart, System.nanoTime() - intervalNanos) + intervalNanos;
+                }
+                inFlight.acquire();
+                pool.execute(() -> {
+                    try {
+                        mover.move(key, m.from(), m.to());
+                        moved.incrementAndGet();
+                    } catch (Throwable t) {
+                        failed.incrementAndGet();
+                        firstError.compareAndSet(null, t);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            inFlight.acquire(concurrency);     // wait for the tail of in-flight moves
+            inFlight.release(concurrency);
+        } finally {
+            pool.shutdown();
+        }
+        return new Result(scanned, moved.get(), failed.get(), firstError.get());
+    }
+}
@@ -0,0 +1,110 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Exact set of slot ranges whose owner differs between two ring snapshots.
+ *
+ * A vnode at position P owns slots [prevP, P) (assign picks the first position > slot), and the
+ * range past the last position wraps to the first vnode. The plan walks the union of both snapshots'
+ * positions once, so it costs O((V1 + V2) log V) and lists each moved range exactly once, with
+ * adjacent ranges between the same pair of nodes merged.
+ */
+final class MigrationPlan {
+    private final long fromVersion, toVersion;
+    private final List<SlotMove> moves;
+    private final long[] starts;                   // moves' start slots, ascending (for find)
+    private final long movedSlots;
+    private final long totalSlots;
+
+    private MigrationPlan(long fromVersion, long toVersion, List<SlotMove> moves, long totalSlots) {
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+        this.moves = Collections.unmodifiableList(moves);
+        this.totalSlots = totalSlots;
+        this.starts = new long[moves.size()];
+        long moved = 0;
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = moves.get(i).start();
+            moved += moves.get(i).size();
+        }
+        this.movedSlots = moved;
+    }
+
+    static MigrationPlan between(RingSnapshot from, RingSnapshot to, long totalSlots) {
+        if (to.isEmpty()) throw new IllegalStateException("target ring is empty");
+        List<SlotMove> moves = new ArrayList<>();
+        if (from.isEmpty()) return new MigrationPlan(from.version(), to.version(), moves, totalSlots);
+
+        int na = from.vnodeCount(), nb = to.vnodeCount();
+        int i = 0, j = 0;
+        long start = 0;
+        while (start < totalSlots) {
+            // next boundary after start in either ring (or end of the slot space)
+            while (i < na && from.position(i) <= start) i++;
+            while (j < nb && to.position(j) <= start) j++;
+            long end = Math.min(i < na ? from.position(i) : totalSlots, j < nb ? to.position(j) : totalSlots);
+
+            StorageNode oldOwner = from.node(from.owner(i < na ? i : 0));
+            StorageNode newOwner = to.node(to.owner(j < nb ? j : 0));
+            if (!oldOwner.host.equals(newOwner.host)) {
+                int last = moves.size() - 1;
+                SlotMove prev = last >= 0 ? moves.get(last) : null;
+                if (prev != null && prev.end() == start
+                        && prev.from().host.equals(oldOwner.host) && prev.to().host.equals(newOwner.host)) {
+                    moves.set(last, new SlotMove(prev.from(), prev.to(), prev.start(), end));
+                } else {
+                    moves.add(new SlotMove(oldOwner, newOwner, start, end));
+                }
+            }
+            start = end;
+        }
+        return new MigrationPlan(from.version(), to.version(), moves, totalSlots);
+    }
+
+    // Number of slots whose owner differs, by the same walk as between() but without listing ranges.
+    static long movedSlots(RingSnapshot from, RingSnapshot to, long totalSlots) {
+        if (from.isEmpty() || to.isEmpty()) return 0;
+        int na = from.vnodeCount(), nb = to.vnodeCount();
+        int i = 0, j = 0;
+        long start = 0, moved = 0;
+        while (start < totalSlots) {
+            while (i < na && from.position(i) <= start) i++;
+            while (j < nb && to.position(j) <= start) j++;
+            long end = Math.min(i < na ? from.position(i) : totalSlots, j < nb ? to.position(j) : totalSlots);
+            StorageNode oldOwner = from.node(from.owner(i < na ? i : 0));
+            StorageNode newOwner = to.node(to.owner(j < nb ? j : 0));
+            if (oldOwner != newOwner && !oldOwner.host.equals(newOwner.host)) moved += end - start;
+            start = end;
+        }
+        return moved;
+    }
+
+    public long fromVersion() {
+        return fromVersion;
+    }
+
+    public long toVersion() {
+        return toVersion;
+    }
+
+    public List<SlotMove> moves() {
+        return moves;
+    }
+
+    public long movedSlots() {
+        return movedSlots;
+    }
+
+    public double movedFraction() {
+        return (double) movedSlots / totalSlots;
+    }
+
+    // Move covering slot, or null if the slot keeps its owner (O(log moves)).
+    public SlotMove find(long slot) {
+        int idx = RingSnapshot.upperBound(starts, slot) - 1;
+        if (idx < 0) return null;
+        SlotMove m = moves.get(idx);
+        return slot < m.end() ? m : null;
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ * Key -> node placement algorithm.
+ *
+ * Implementations: {@link ConsistentHashRing} (ring + vnodes, O(log V)), {@link JumpHashEngine}
+ * (O(1) memory), {@link RendezvousHashEngine} (HRW, best balance for small clusters) and
+ * {@link MaglevEngine} (lookup table, O(1) routing). Compare them with {@link PlacementStats#measure}.
+ */
+interface PlacementEngine {
+    String name();
+
+    StorageNode assign(String item);
+
+    // Returns the node's position in the engine's placement space (ring slot, bucket, table index...).
+    long addNode(StorageNode node);
+
+    long removeNode(StorageNode node);
+
+    int nodeCount();
+}
@@ -0,0 +1,47 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Key movement and balance of one engine across one topology change, measured on a key sample.
+ *
+ * movedFraction: share of sample keys whose node changed (ideal for adding 1 node to n is 1/(n+1)).
+ * maxOverMean / stdDevOverMean: load spread across nodes after the change (1.0 / 0.0 is perfect).
+ */
+record PlacementStats(String engine, int nodesAfter, double movedFraction,
+                      double maxOverMean, double stdDevOverMean, double nanosPerLookup) {
+
+    static PlacementStats measure(PlacementEngine engine, String[] sample, Consumer<PlacementEngine> change) {
+        StorageNode[] before = new StorageNode[sample.length];
+        for (int i = 0; i < sample.length; i++) before[i] = engine.assign(sample[i]);
+
+        change.accept(engine);
+
+        Map<String, Integer> load = new HashMap<>();
+        long moved = 0;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < sample.length; i++) {
+            StorageNode after = engine.assign(sample[i]);
+            if (!after.host.equals(before[i].host)) moved++;
+            load.merge(after.host, 1, Integer::sum);
+        }
+        long elapsed = System.nanoTime() - t0;
+
+        int n = engine.nodeCount();
+        double mean = (double) sample.length / n;
+        double max = 0, sq = 0;
+        for (int c : load.values()) {
+            max = Math.max(max, c);
+            sq += (c - mean) * (c - mean);
+        }
+        sq += (n - load.size()) * mean * mean;        // nodes that received no keys
+        return new PlacementStats(engine.name(), n, (double) moved / sample.length,
+                max / mean, Math.sqrt(sq / n) / mean, (double) elapsed / sample.length);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-10s nodes=%d moved=%.2f%% max/mean=%.3f stddev/mean=%.3f lookup=%.0fns",
+                engine, nodesAfter, 100 * movedFraction, maxOverMean, stdDevOverMean, nanosPerLookup);
+    }
+}
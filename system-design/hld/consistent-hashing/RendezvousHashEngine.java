@@ -0,0 +1,87 @@
+import java.util.Arrays;
+
+/**
+ * Rendezvous / highest-random-weight hashing: each key goes to the node with the highest
+ * score(key, node). O(n) per lookup, no extra memory, near-perfect balance and minimal movement;
+ * a good fit for small clusters where n is a few dozen.
+ */
+final class RendezvousHashEngine implements PlacementEngine {
+    private final HashFunction hash;
+
+    // Immutable state swapped as a unit: nodes and their precomputed host hashes.
+    private static final class State {
+        final StorageNode[] nodes;
+        final long[] seeds;
+
+        State(StorageNode[] nodes, long[] seeds) {
+            this.nodes = nodes;
+            this.seeds = seeds;
+        }
+    }
+
+    private volatile State state = new State(new StorageNode[0], new long[0]);
+
+    RendezvousHashEngine() {
+        this(HashAlgorithm.MURMUR3);
+    }
+
+    RendezvousHashEngine(HashFunction hash) {
+        this.hash = hash;
+    }
+
+    @Override
+    public String name() {
+        return "rendezvous";
+    }
+
+    @Override
+    public StorageNode assign(String item) {
+        State s = state;
+        if (s.nodes.length == 0) throw new IllegalStateException("no nodes");
+        long k = hash.hash64(item);
+        int best = 0;
+        long bestScore = Long.MIN_VALUE;
+        for (int i = 0; i < s.seeds.length; i++) {
+            long score = HashUtil.fmix64(k ^ s.seeds[i]);
+            // Equal scores (two hosts with colliding seeds) go to the lower host, independent of join order.
+            if (score > bestScore || (score == bestScore && s.nodes[i].host.compareTo(s.nodes[best].host) < 0)) {
+                bestScore = score;
+                best = i;
+            }
+        }
+        return s.nodes[best];
+    }
+
+    @Override
+    public synchronized long addNode(StorageNode node) {
+        State s = state;
+        if (JumpHashEngine.indexOf(s.nodes, node) >= 0) throw new IllegalStateException("node already present: " + node.host);
+        StorageNode[] ns = Arrays.copyOf(s.nodes, s.nodes.length + 1);
+        long[] seeds = Arrays.copyOf(s.seeds, s.seeds.length + 1);
+        ns[ns.length - 1] = node;
+        seeds[seeds.length - 1] = hash.hash64(node.host);
+        state = new State(ns, seeds);
+        return ns.length - 1;
+    }
+
+    @Override
+    public synchronized long removeNode(StorageNode node) {
+        State s = state;
+        int idx = JumpHashEngine.indexOf(s.nodes, node);
+        if (idx < 0) throw new IllegalStateException("node does not exist");
+        StorageNode[] ns = new StorageNode[s.nodes.length - 1];
+        long[] seeds = new long[ns.length];
+        for (int i = 0, k = 0; i < s.nodes.length; i++) {
+            if (i == idx) continue;
+            ns[k] = s.nodes[i];
+            seeds[k++] = s.seeds[i];
+        }
+        state = new State(ns, seeds);
+        return idx;
+    }
+
+    @Override
+    public int nodeCount() {
+        return state.nodes.length;
+    }
+}
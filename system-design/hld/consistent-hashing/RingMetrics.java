@@ -0,0 +1,209 @@
+import common.LatencyHistogram;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.ObjectName;
+
+/**
+ * Balance and routing-latency metrics of one {@link ConsistentHashRing}.
+ *
+ * - Ownership (slot fraction per node, max/mean, stddev/mean) is computed from the current snapshot
+ *   on read, so it costs nothing on the routing path.
+ * - Keys assigned per node are LongAdders (exact while enabled).
+ * - assign latency goes into a {@link LatencyHistogram}, timed on 1 of every latencySampleEvery calls.
+ * - Each addNode/removeNode records the fraction of slots that changed owner (expect ~1/N), counted
+ *   in one pass over both snapshots' positions without building a MigrationPlan.
+ *
+ * Recording is off by default, so assign and membership changes pay nothing; turn it on with
+ * setEnabled(true) (also over JMX). Ownership figures are available either way.
+ *
+ * Exposed as a snapshot via {@link #snapshot()} and over JMX via {@link #registerMBean}.
+ */
+final class RingMetrics implements RingMetricsMXBean {
+
+    /** Point-in-time copy of the metrics. */
+    record Snapshot(long version, Map<String, Double> ownedFractions, double ownershipMaxOverMean,
+                    double ownershipStdDevOverMean, Map<String, Long> assignedCounts,
+                    long assignP50Nanos, long assignP99Nanos, long assignP999Nanos,
+                    double lastChangeMovedFraction) {
+    }
+
+    private final ConsistentHashRing ring;
+    private final ConcurrentHashMap<String, LongAdder> assigned = new ConcurrentHashMap<>();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private volatile boolean enabled;
+    private volatile int latencySampleEvery = 64;
+    private volatile double lastChangeMovedFraction = Double.NaN;
+
+    RingMetrics(ConsistentHashRing ring) {
+        this.ring = ring;
+    }
+
+    // --- recording (called by the ring) ---
+
+    boolean shouldTime() {
+        int every = latencySampleEvery;
+        return every == 1 || ThreadLocalRandom.current().nextInt(every) == 0;
+    }
+
+    void recordAssign(StorageNode node, long startNanos) {
+        LongAdder c = assigned.get(node.host);
+        if (c == null) c = assigned.computeIfAbsent(node.host, h -> new LongAdder());
+        c.increment();
+        if (startNanos != 0) latency.record(System.nanoTime() - startNanos);
+    }
+
+    void recordChange(RingSnapshot before, RingSnapshot after) {
+        if (!enabled || before.isEmpty() || after.isEmpty()) return;
+        lastChangeMovedFraction = (double) MigrationPlan.movedSlots(before, after, ring.totalSlots()) / ring.totalSlots();
+    }
+
+    // --- reading ---
+
+    public Snapshot snapshot() {
+        RingSnapshot snap = ring.snapshot();
+        double[] owned = ownedFractions(snap);
+        return new Snapshot(snap.version(), fractionsByHost(snap, owned), maxOverMean(owned), stdDevOverMean(owned),
+                getAssignedCounts(), getAssignP50Nanos(), getAssignP99Nanos(), getAssignP999Nanos(),
+                lastChangeMovedFraction);
+    }
+
+    public void registerMBean(String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(this, new ObjectName("consistenthashing:type=RingMetrics,name=" + name));
+        } catch (Exception e) {
+            throw new IllegalStateException("cannot register ring metrics MBean", e);
+        }
+    }
+
+    @Override
+    public long getVersion() {
+        return ring.version();
+    }
+
+    @Override
+    public int getNodeCount() {
+        return ring.nodeCount();
+    }
+
+    @Override
+    public int getVnodeCount() {
+        return ring.vnodeCount();
+    }
+
+    @Override
+    public Map<String, Double> getOwnedFractions() {
+        RingSnapshot snap = ring.snapshot();
+        return fractionsByHost(snap, ownedFractions(snap));
+    }
+
+    @Override
+    public double getOwnershipMaxOverMean() {
+        return maxOverMean(ownedFractions(ring.snapshot()));
+    }
+
+    @Override
+    public double getOwnershipStdDevOverMean() {
+        return stdDevOverMean(ownedFractions(ring.snapshot()));
+    }
+
+    @Override
+    public Map<String, Long> getAssignedCounts() {
+        Map<String, Long> m = new LinkedHashMap<>();
+        assigned.forEach((host, c) -> m.put(host, c.sum()));
+        return m;
+    }
+
+    @Override
+    public long getLatencySampleCount() {
+        return latency.count();
+    }
+
+    @Override
+    public long getAssignP50Nanos() {
+        return latency.percentile(50);
+    }
+
+    @Override
+    public long getAssignP99Nanos() {
+        return latency.percentile(99);
+    }
+
+    @Override
+    public long getAssignP999Nanos() {
+        return latency.percentile(99.9);
+    }
+
+    @Override
+    public double getLastChangeMovedFraction() {
+        return lastChangeMovedFraction;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public int getLatencySampleEvery() {
+        return latencySampleEvery;
+    }
+
+    @Override
+    public void setLatencySampleEvery(int every) {
+        if (every <= 0) throw new IllegalArgumentException("every must be positive");
+        this.latencySampleEvery = every;
+    }
+
+    @Override
+    public void reset() {
+        assigned.clear();
+        latency.reset();
+        lastChangeMovedFraction = Double.NaN;
+    }
+
+    // --- ownership math ---
+
+    // Fraction of the slot space each node owns: a vnode at P owns [prevP, P), the first one wraps.
+    private double[] ownedFractions(RingSnapshot snap) {
+        double[] f = new double[snap.nodeCount()];
+        int v = snap.vnodeCount();
+        if (v == 0) return f;
+        long total = ring.totalSlots();
+        for (int i = 0; i < v; i++) {
+            long span = i == 0 ? snap.position(0) + total - snap.position(v - 1) : snap.position(i) - snap.position(i - 1);
+            f[snap.owner(i)] += (double) span / total;
+        }
+        return f;
+    }
+
+    private static Map<String, Double> fractionsByHost(RingSnapshot snap, double[] f) {
+        Map<String, Double> m = new LinkedHashMap<>();
+        for (int i = 0; i < f.length; i++) m.put(snap.node(i).host, f[i]);
+        return m;
+    }
+
+    private static double maxOverMean(double[] f) {
+        if (f.length == 0) return Double.NaN;
+        double max = 0;
+        for (double x : f) max = Math.max(max, x);
+        return max * f.length;                        // mean is 1/n
+    }
+
+    private static double stdDevOverMean(double[] f) {
+        if (f.length == 0) return Double.NaN;
+        double mean = 1.0 / f.length, sq = 0;
+        for (double x : f) sq += (x - mean) * (x - mean);
+        return Math.sqrt(sq / f.length) / mean;
+    }
+}
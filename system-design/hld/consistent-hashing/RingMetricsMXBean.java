@@ -0,0 +1,38 @@
+import java.util.Map;
+
+/** JMX view of {@link RingMetrics}; registered with {@link RingMetrics#registerMBean}. */
+public interface RingMetricsMXBean {
+    long getVersion();
+
+    int getNodeCount();
+
+    int getVnodeCount();
+
+    Map<String, Double> getOwnedFractions();
+
+    double getOwnershipMaxOverMean();
+
+    double getOwnershipStdDevOverMean();
+
+    Map<String, Long> getAssignedCounts();
+
+    long getLatencySampleCount();
+
+    long getAssignP50Nanos();
+
+    long getAssignP99Nanos();
+
+    long getAssignP999Nanos();
+
+    double getLastChangeMovedFraction();
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    int getLatencySampleEvery();
+
+    void setLatencySampleEvery(int every);
+
+    void reset();
+}
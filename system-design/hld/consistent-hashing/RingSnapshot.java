@@ -0,0 +1,227 @@
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Immutable, versioned view of the ring.
+ *
+ * Every membership change builds a new snapshot (version + 1) and the ring publishes it with a single
+ * atomic swap, so readers never see a half-applied change and never need a lock. The arrays are
+ * private and never mutated after construction; callers read them through index accessors or
+ * read-only buffer views.
+ */
+final class RingSnapshot {
+    static final RingSnapshot EMPTY =
+            new RingSnapshot(0, new long[0], new int[0], new StorageNode[0], new int[0], new long[0][]);
+
+    private final long version;
+
+    // Ring: sorted positions with the owning node's index in the node table, aligned by position.
+    private final long[] positions;
+    private final int[] owners;
+
+    // Node table: physical nodes, their weights and their own (sorted) vnode positions.
+    private final StorageNode[] nodes;
+    private final int[] weights;
+    private final long[][] nodeVnodes;
+    private final long totalWeight;
+
+    private RingSnapshot(long version, long[] positions, int[] owners,
+                         StorageNode[] nodes, int[] weights, long[][] nodeVnodes) {
+        this.version = version;
+        this.positions = positions;
+        this.owners = owners;
+        this.nodes = nodes;
+        this.weights = weights;
+        this.nodeVnodes = nodeVnodes;
+        long w = 0;
+        for (int x : weights) w += x;
+        this.totalWeight = w;
+    }
+
+    // Rebuild a snapshot from its flat ring arrays (positions sorted, owners index into nodes).
+    static RingSnapshot of(long version, long[] positions, int[] owners, StorageNode[] nodes, int[] weights) {
+        int[] counts = new int[nodes.length];
+        for (int o : owners) counts[o]++;
+        long[][] vns = new long[nodes.length][];
+        for (int i = 0; i < nodes.length; i++) vns[i] = new long[counts[i]];
+        int[] fill = new int[nodes.length];
+        for (int i = 0; i < positions.length; i++) vns[owners[i]][fill[owners[i]]++] = positions[i];
+        return new RingSnapshot(version, positions, owners, nodes, weights, vns);
+    }
+
+    long version() {
+        return version;
+    }
+
+    boolean isEmpty() {
+        return positions.length == 0;
+    }
+
+    int vnodeCount() {
+        return positions.length;
+    }
+
+    int nodeCount() {
+        return nodes.length;
+    }
+
+    // --- read-only access to the ring (i = 0..vnodeCount-1) and node table (n = 0..nodeCount-1) ---
+    long position(int i) {
+        return positions[i];
+    }
+
+    int owner(int i) {
+        return owners[i];
+    }
+
+    StorageNode node(int n) {
+        return nodes[n];
+    }
+
+    int weight(int n) {
+        return weights[n];
+    }
+
+    long totalWeight() {
+        return totalWeight;
+    }
+
+    StorageNode[] nodes() {
+        return nodes.clone();
+    }
+
+    LongBuffer positionsView() {
+        return LongBuffer.wrap(positions).asReadOnlyBuffer();
+    }
+
+    IntBuffer ownersView() {
+        return IntBuffer.wrap(owners).asReadOnlyBuffer();
+    }
+
+    // Index of the first position > pos (== vnodeCount() past the last one).
+    int upperBound(long pos) {
+        return upperBound(positions, pos);
+    }
+
+    // --- node owning slot pos: first position > pos, wrapping to 0 (O(log V)) ---
+    StorageNode nodeForSlot(long pos) {
+        return nodes[ownerIndexForSlot(pos)];
+    }
+
+    int ownerIndexForSlot(long pos) {
+        if (positions.length == 0) throw new IllegalStateException("ring is empty");
+        int idx = upperBound(positions, pos);
+        if (idx == positions.length) idx = 0;     // wrap to 0 if past end
+        return owners[idx];
+    }
+
+    // --- up to n distinct physical nodes clockwise from pos, written to out; returns how many were found ---
+    // With spreadZones, nodes in a zone already chosen are skipped first, then used only to fill up to n.
+    int successors(long pos, int n, StorageNode[] out, boolean spreadZones) {
+        if (positions.length == 0) throw new IllegalStateException("ring is empty");
+        if (n > out.length) throw new IllegalArgumentException("out has room for " + out.length + " nodes");
+        int want = Math.min(n, nodes.length);
+        int start = upperBound(positions, pos);
+        int count = walk(start, want, out, 0, spreadZones);
+        if (count < want && spreadZones) count = walk(start, want, out, count, false);
+        return count;
+    }
+
+    private int walk(int start, int want, StorageNode[] out, int count, boolean spreadZones) {
+        int len = positions.length;
+        for (int step = 0; step < len && count < want; step++) {
+            int idx = start + step;
+            if (idx >= len) idx -= len;
+            StorageNode cand = nodes[owners[idx]];
+            if (contains(out, count, cand, spreadZones)) continue;
+            out[count++] = cand;
+        }
+        return count;
+    }
+
+    private static boolean contains(StorageNode[] chosen, int count, StorageNode cand, boolean sameZone) {
+        for (int i = 0; i < count; i++) {
+            if (chosen[i] == cand) return true;
+            if (sameZone && cand.zone != null && cand.zone.equals(chosen[i].zone)) return true;
+        }
+        return false;
+    }
+
+    int indexOf(StorageNode node) {
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i].host.equals(node.host)) return i;
+        }
+        return -1;
+    }
+
+    // --- new snapshot with node's sorted vnodes merged in (O(V + v)) ---
+    // Vnodes of different nodes may hash to the same position. Equal positions are kept side by side,
+    // ordered by host, so the first of them (lowest host) owns the range no matter the order nodes
+    // joined in; the others own an empty range until it leaves.
+    RingSnapshot withNode(StorageNode node, int weight, long[] vn) {
+        if (indexOf(node) >= 0) throw new IllegalStateException("node already present: " + node.host);
+        int v = vn.length;
+        int nodeIdx = nodes.length;
+        long[] newPos = new long[positions.length + v];
+        int[] newOwn = new int[newPos.length];
+        int i = 0, j = 0, k = 0;
+        while (i < positions.length || j < v) {
+            if (j == v || (i < positions.length && (positions[i] < vn[j]
+                    || (positions[i] == vn[j] && nodes[owners[i]].host.compareTo(node.host) < 0)))) {
+                newPos[k] = positions[i];
+                newOwn[k++] = owners[i++];
+            } else {
+                newPos[k] = vn[j++];
+                newOwn[k++] = nodeIdx;
+            }
+        }
+
+        StorageNode[] ns = Arrays.copyOf(nodes, nodeIdx + 1);
+        ns[nodeIdx] = node;
+        int[] ws = Arrays.copyOf(weights, nodeIdx + 1);
+        ws[nodeIdx] = weight;
+        long[][] vns = Arrays.copyOf(nodeVnodes, nodeIdx + 1);
+        vns[nodeIdx] = vn;
+        return new RingSnapshot(version + 1, newPos, newOwn, ns, ws, vns);
+    }
+
+    // --- new snapshot without node: drop its vnodes in one pass and compact the node table (O(V)) ---
+    RingSnapshot withoutNode(StorageNode node) {
+        if (positions.length == 0) throw new IllegalStateException("hash space is empty");
+        int nodeIdx = indexOf(node);
+        if (nodeIdx < 0) throw new IllegalStateException("node does not exist");
+
+        int v = nodeVnodes[nodeIdx].length;
+        long[] newPos = new long[positions.length - v];
+        int[] newOwn = new int[newPos.length];
+        int k = 0;
+        for (int i = 0; i < positions.length; i++) {
+            int o = owners[i];
+            if (o == nodeIdx) continue;
+            newPos[k] = positions[i];
+            newOwn[k++] = o > nodeIdx ? o - 1 : o;   // node table shifts down past the removed slot
+        }
+
+        StorageNode[] ns = new StorageNode[nodes.length - 1];
+        System.arraycopy(nodes, 0, ns, 0, nodeIdx);
+        System.arraycopy(nodes, nodeIdx + 1, ns, nodeIdx, ns.length - nodeIdx);
+        int[] ws = new int[weights.length - 1];
+        System.arraycopy(weights, 0, ws, 0, nodeIdx);
+        System.arraycopy(weights, nodeIdx + 1, ws, nodeIdx, ws.length - nodeIdx);
+        long[][] vns = new long[nodeVnodes.length - 1][];
+        System.arraycopy(nodeVnodes, 0, vns, 0, nodeIdx);
+        System.arraycopy(nodeVnodes, nodeIdx + 1, vns, nodeIdx, vns.length - nodeIdx);
+        return new RingSnapshot(version + 1, newPos, newOwn, ns, ws, vns);
+    }
+
+    // Helper: upperBound on sorted long[]
+    static int upperBound(long[] a, long x) {
+        int lo = 0, hi = a.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] <= x) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,150 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Compact binary ring snapshot, written once and loaded zero-copy with a memory map.
+ *
+ * Layout (little-endian):
+ * <pre>
+ *   0  int   magic "CHR1"          24 int  hash algorithm id (HashAlgorithm.id)
+ *   4  int   format version        28 int  vnodesPerWeight
+ *   8  long  ring version          32 int  node count (N)
+ *  16  long  totalSlots            36 int  vnode count (V)
+ *  40  long  node table offset     48 long CRC32C of bytes [0, 48) and [64, end)
+ *  64  long[V] sorted positions, then int[V] owner indices, then N node records:
+ *      int weight, then name/host/zone as (int length, UTF-8 bytes), length -1 = null
+ * </pre>
+ * The checksum covers the header too, so a corrupted slot count, algorithm or vnode count is rejected
+ * instead of silently misrouting keys.
+ *
+ * Files are written to a temp file, forced, and atomically renamed, so readers (including other
+ * router processes mapping the same path) only ever see a complete snapshot. One mapping is limited
+ * to 2 GiB (about 178M vnodes).
+ */
+final class RingSnapshotFile {
+    static final int MAGIC = 0x31524843;           // "CHR1" little-endian
+    static final int FORMAT = 2;              // 2: header checksummed, stable hash id
+    static final int HEADER_SIZE = 64;
+
+    private RingSnapshotFile() {}
+
+    // --- serialize the ring's current snapshot; the ring must use a built-in HashAlgorithm ---
+    static void write(ConsistentHashRing ring, Path path) throws IOException {
+        if (!(ring.hashFunction() instanceof HashAlgorithm)) {
+            throw new IllegalArgumentException("only built-in HashAlgorithm rings can be persisted");
+        }
+        RingSnapshot snap = ring.snapshot();
+        int n = snap.nodeCount(), v = snap.vnodeCount();
+
+        byte[][] strings = new byte[n * 3][];
+        long nodeTableSize = 0;
+        for (int i = 0; i < n; i++) {
+            StorageNode node = snap.node(i);
+            strings[3 * i] = utf8(node.name);
+            strings[3 * i + 1] = utf8(node.host);
+            strings[3 * i + 2] = utf8(node.zone);
+            nodeTableSize += 4;
+            for (int k = 0; k < 3; k++) nodeTableSize += 4 + (strings[3 * i + k] == null ? 0 : strings[3 * i + k].length);
+        }
+        long nodeTableOffset = HEADER_SIZE + 12L * v;
+        long size = nodeTableOffset + nodeTableSize;
+        if (size > Integer.MAX_VALUE) throw new IOException("snapshot too large for one mapping: " + size);
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (RandomAccessFile raf = new RandomAccessFile(tmp.toFile(), "rw")) {
+            raf.setLength(size);
+            MappedByteBuffer buf = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(0, MAGIC).putInt(4, FORMAT).putLong(8, snap.version()).putLong(16, ring.totalSlots())
+                    .putInt(24, ((HashAlgorithm) ring.hashFunction()).id).putInt(28, ring.vnodesPerWeight())
+                    .putInt(32, n).putInt(36, v).putLong(40, nodeTableOffset);
+
+            buf.position(HEADER_SIZE);
+            buf.asLongBuffer().put(snap.positionsView());
+            buf.position(HEADER_SIZE + 8 * v);
+            buf.asIntBuffer().put(snap.ownersView());
+            buf.position((int) nodeTableOffset);
+            for (int i = 0; i < n; i++) {
+                buf.putInt(snap.weight(i));
+                for (int k = 0; k < 3; k++) {
+                    byte[] b = strings[3 * i + k];
+                    buf.putInt(b == null ? -1 : b.length);
+                    if (b != null) buf.put(b);
+                }
+            }
+            buf.putLong(48, checksum(buf, (int) size));
+            buf.force();
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // --- map a snapshot read-only and validate it; assign then runs directly on the mapping ---
+    static MappedRing open(Path path) throws IOException {
+        MappedByteBuffer buf;
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) throw new IOException("bad snapshot size: " + size);
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);   // mapping stays valid after close
+        }
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        if (buf.getInt(0) != MAGIC) throw new IOException("not a ring snapshot: " + path);
+        if (buf.getInt(4) != FORMAT) throw new IOException("unsupported snapshot format " + buf.getInt(4));
+        if (buf.getLong(48) != checksum(buf, buf.capacity())) throw new IOException("snapshot checksum mismatch: " + path);
+
+        HashAlgorithm alg = HashAlgorithm.byId(buf.getInt(24));
+        if (alg == null) throw new IOException("unknown hash algorithm " + buf.getInt(24));
+        int n = buf.getInt(32), v = buf.getInt(36);
+        long nodeTableOffset = buf.getLong(40);
+        if (nodeTableOffset != HEADER_SIZE + 12L * v) throw new IOException("corrupt snapshot header");
+
+        StorageNode[] nodes = new StorageNode[n];
+        int[] weights = new int[n];
+        ByteBuffer table = buf.duplicate().order(ByteOrder.LITTLE_ENDIAN).position((int) nodeTableOffset);
+        for (int i = 0; i < n; i++) {
+            weights[i] = table.getInt();
+            String name = readUtf8(table), host = readUtf8(table), zone = readUtf8(table);
+            nodes[i] = new StorageNode(name, host, zone);
+        }
+        return new MappedRing(buf, buf.getLong(8), buf.getLong(16), alg, buf.getInt(28), nodes, weights, v);
+    }
+
+    // --- the stored header CRC without mapping the file; -1 if the file is too short to have one ---
+    static long storedChecksum(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer b = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            while (b.hasRemaining()) {
+                if (ch.read(b, 48 + b.position()) < 0) return -1;
+            }
+            return b.getLong(0);
+        }
+    }
+
+    private static long checksum(ByteBuffer buf, int end) {
+        CRC32C crc = new CRC32C();
+        crc.update(buf.duplicate().position(0).limit(48));
+        crc.update(buf.duplicate().position(HEADER_SIZE).limit(end));
+        return crc.getValue();
+    }
+
+    private static byte[] utf8(String s) {
+        return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String readUtf8(ByteBuffer b) {
+        int len = b.getInt();
+        if (len < 0) return null;
+        byte[] bytes = new byte[len];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
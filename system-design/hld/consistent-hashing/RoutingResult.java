@@ -0,0 +1,3 @@
+/** Node chosen for a key, together with the version of the ring snapshot the decision was made on. */
+record RoutingResult(StorageNode node, long version) {
+}
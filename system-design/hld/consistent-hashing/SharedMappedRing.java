@@ -0,0 +1,53 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Several router processes on one host sharing a single ring file.
+ *
+ * One process publishes with {@link RingSnapshotFile#write} (atomic rename); every router maps the
+ * same path, so the ring's pages live once in the page cache. {@link #refresh()} remaps when the file
+ * was replaced, and readers keep using the old mapping until the swap.
+ *
+ * A replacement is detected by file identity (inode, where the platform reports one), size, mtime and
+ * the header CRC, so a file written within the same mtime tick, or one reusing a version number, is
+ * still picked up. Polling costs a stat and an 8-byte read.
+ */
+final class SharedMappedRing {
+    private record Stamp(Object fileKey, FileTime modified, long size, long checksum) {}
+
+    private final Path path;
+    private volatile MappedRing current;
+    private Stamp loaded;                          // guarded by this
+
+    SharedMappedRing(Path path) throws IOException {
+        this.path = path;
+        refresh();
+    }
+
+    public StorageNode assign(String item) {
+        return current.assign(item);
+    }
+
+    public MappedRing current() {
+        return current;
+    }
+
+    // Remaps if the file changed since the last load; returns true if a new snapshot was mapped.
+    // If the file is replaced between the stat and the open, the stamp describes the older file and
+    // the next refresh simply remaps once more.
+    public synchronized boolean refresh() throws IOException {
+        BasicFileAttributes a = Files.readAttributes(path, BasicFileAttributes.class);
+        Stamp stamp = new Stamp(a.fileKey(), a.lastModifiedTime(), a.size(), RingSnapshotFile.storedChecksum(path));
+        if (current != null && stamp.equals(loaded)) return false;
+        MappedRing next = RingSnapshotFile.open(path);
+        loaded = stamp;
+        if (current != null && next.checksum() == current.checksum() && next.version() == current.version()) {
+            return false;                          // rewritten with identical contents
+        }
+        current = next;
+        return true;
+    }
+}
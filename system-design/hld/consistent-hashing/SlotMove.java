@@ -0,0 +1,6 @@
+/** Slots [start, end) moved from one node to another by a topology change. */
+record SlotMove(StorageNode from, StorageNode to, long start, long end) {
+    long size() {
+        return end - start;
+    }
+}
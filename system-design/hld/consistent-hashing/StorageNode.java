@@ -1,6 +1,8 @@
 final class StorageNode {
     final String name;
     final String host; // unique id for hashing
-    StorageNode(String name, String host) { this.name = name; this.host = host; }
-    @Override public String toString() { return name + "(" + host + ")"; }
+    final String zone; // failure domain (zone/rack) for replica spreading; null if unknown
+    StorageNode(String name, String host) { this(name, host, null); }
+    StorageNode(String name, String host, String zone) { this.name = name; this.host = host; this.zone = zone; }
+    @Override public String toString() { return name + "(" + host + (zone == null ? "" : ", " + zone) + ")"; }
 }
@@ -0,0 +1,47 @@
+package lld.strategypattern.payment;
+
+/**
+ * Wraps a strategy with a token bucket and an AIMD concurrency limit; over capacity it throws
+ * {@link PaymentRejectedException} immediately instead of queuing. Validation failures
+ * ({@link PaymentException}) are normal outcomes; any other exception counts as overload.
+ */
+public class AdmissionControlledStrategy implements PaymentStrategy {
+    private final PaymentStrategy delegate;
+    private final TokenBucket rate;
+    private final AimdLimiter concurrency;
+
+    public AdmissionControlledStrategy(PaymentStrategy delegate, AdmissionPolicy policy) {
+        this.delegate = delegate;
+        this.rate = new TokenBucket(policy.ratePerSecond(), policy.burst());
+        this.concurrency = new AimdLimiter(policy);
+    }
+
+    @Override
+    public PaymentMethod supports() {
+        return delegate.supports();
+    }
+
+    @Override
+    public String pay(long amt, String ref) {
+        if (!rate.tryAcquire()) throw new PaymentRejectedException(supports(), PaymentRejectedException.Reason.RATE_LIMITED);
+        if (!concurrency.tryAcquire()) {
+            throw new PaymentRejectedException(supports(), PaymentRejectedException.Reason.CONCURRENCY_LIMITED);
+        }
+        long t0 = System.nanoTime();
+        boolean overloaded = false;
+        try {
+            return delegate.pay(amt, ref);
+        } catch (PaymentException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            overloaded = true;
+            throw e;
+        } finally {
+            concurrency.release(t0, overloaded);
+        }
+    }
+
+    public AimdLimiter concurrencyLimiter() {
+        return concurrency;
+    }
+}
@@ -0,0 +1,27 @@
+package lld.strategypattern.payment;
+
+import java.time.Duration;
+
+/**
+ * Admission limits for one payment method.
+ *
+ * ratePerSecond/burst feed a token bucket; initialLimit..maxLimit bound the adaptive concurrency
+ * limit, which grows additively while calls finish under latencyTarget and shrinks by
+ * backoffRatio when they do not.
+ */
+public record AdmissionPolicy(double ratePerSecond, int burst,
+                              int initialLimit, int minLimit, int maxLimit,
+                              Duration latencyTarget, double backoffRatio) {
+    public AdmissionPolicy {
+        if (ratePerSecond <= 0 || burst <= 0) throw new IllegalArgumentException("rate and burst must be positive");
+        if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("need 0 < minLimit <= initialLimit <= maxLimit");
+        }
+        if (!(backoffRatio > 0 && backoffRatio < 1)) throw new IllegalArgumentException("backoffRatio must be in (0, 1)");
+    }
+
+    public static AdmissionPolicy of(double ratePerSecond, int maxConcurrent, Duration latencyTarget) {
+        return new AdmissionPolicy(ratePerSecond, Math.max(1, (int) ratePerSecond / 10),
+                Math.max(1, maxConcurrent / 2), 1, maxConcurrent, latencyTarget, 0.9);
+    }
+}
@@ -0,0 +1,63 @@
+package lld.strategypattern.payment;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adaptive concurrency limit (AIMD): +1/limit per call that finishes under the latency target
+ * (about +1 per window of calls), limit * backoffRatio when calls are slow or fail unexpectedly.
+ * The decrease applies at most once per window: only a bad call that started after the last
+ * decrease triggers another, so a burst of N slow completions backs off once, not backoffRatio^N.
+ * acquire/release are CAS-only; no call ever waits for a permit.
+ */
+public class AimdLimiter {
+    private final double minLimit, maxLimit, backoffRatio;
+    private final long targetNanos;
+    private final AtomicLong limitBits;                // double, stored as raw bits
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong lastDecrease = new AtomicLong(System.nanoTime());
+
+    public AimdLimiter(AdmissionPolicy p) {
+        this.minLimit = p.minLimit();
+        this.maxLimit = p.maxLimit();
+        this.backoffRatio = p.backoffRatio();
+        this.targetNanos = p.latencyTarget().toNanos();
+        this.limitBits = new AtomicLong(Double.doubleToRawLongBits(p.initialLimit()));
+    }
+
+    public boolean tryAcquire() {
+        int limit = (int) limit();
+        while (true) {
+            int cur = inFlight.get();
+            if (cur >= limit) return false;
+            if (inFlight.compareAndSet(cur, cur + 1)) return true;
+        }
+    }
+
+    // startNanos: System.nanoTime() when the call was admitted.
+    // overloaded: the call timed out / failed in a way that signals provider saturation.
+    public void release(long startNanos, boolean overloaded) {
+        inFlight.decrementAndGet();
+        long now = System.nanoTime();
+        boolean grow = !overloaded && now - startNanos <= targetNanos;
+        if (!grow) {
+            // Calls already in flight at the last decrease saw the old limit; they do not count again.
+            long last = lastDecrease.get();
+            if (startNanos - last <= 0 || !lastDecrease.compareAndSet(last, now)) return;
+        }
+        while (true) {
+            long bits = limitBits.get();
+            double cur = Double.longBitsToDouble(bits);
+            double next = grow ? Math.min(maxLimit, cur + 1.0 / cur) : Math.max(minLimit, cur * backoffRatio);
+            if (next == cur || limitBits.compareAndSet(bits, Double.doubleToRawLongBits(next))) return;
+        }
+    }
+
+    public double limit() {
+        return Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
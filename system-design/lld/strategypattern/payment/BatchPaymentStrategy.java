@@ -0,0 +1,46 @@
+package lld.strategypattern.payment;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Optional capability for providers with a bulk settlement call. StrategyRegistry puts a
+ * {@link CoalescingStrategy} in front of these, so concurrent single payments are sent as batches.
+ */
+public interface BatchPaymentStrategy extends PaymentStrategy {
+    record Item(long amount, String ref) {}
+
+    // Exactly one of transactionId / error is set.
+    record Outcome(String transactionId, PaymentException error) {
+        public Outcome {
+            if ((transactionId == null) == (error == null)) {
+                throw new IllegalArgumentException("exactly one of transactionId and error must be set");
+            }
+        }
+
+        public static Outcome success(String transactionId) {
+            return new Outcome(transactionId, null);
+        }
+
+        public static Outcome failure(PaymentException error) {
+            return new Outcome(null, error);
+        }
+    }
+
+    // One outcome per item, in item order.
+    List<Outcome> payBatch(List<Item> items);
+
+    default int maxBatchSize() {
+        return 100;
+    }
+
+    // How long the first request of a batch may wait for others to join it.
+    default Duration batchWindow() {
+        return Duration.ofMillis(5);
+    }
+
+    // How long a caller waits for its batch's outcome before giving up.
+    default Duration batchTimeout() {
+        return Duration.ofSeconds(30);
+    }
+}
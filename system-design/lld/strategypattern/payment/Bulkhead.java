@@ -0,0 +1,46 @@
+package lld.strategypattern.payment;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Caps concurrent calls into one payment method so a slow provider cannot absorb every caller.
+ * PaymentService uses tryAcquire, so callers beyond the cap are rejected instead of queuing.
+ */
+public class Bulkhead {
+    private final PaymentMethod method;
+    private final int maxConcurrent;
+    private final Semaphore permits;
+
+    public Bulkhead(PaymentMethod method, int maxConcurrent) {
+        if (maxConcurrent <= 0) throw new IllegalArgumentException("maxConcurrent must be positive");
+        this.method = method;
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    public void acquire() {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentException(PaymentException.Code.UNAVAILABLE, "Interrupted waiting for " + method + " capacity");
+        }
+    }
+
+    // false immediately if every permit is taken
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int inFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int maxConcurrent() {
+        return maxConcurrent;
+    }
+}
@@ -0,0 +1,158 @@
+package lld.strategypattern.payment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Micro-batching front for a {@link BatchPaymentStrategy}: pay() enqueues the request and waits;
+ * a dispatcher thread collects requests for up to batchWindow or maxBatchSize, submits them as one
+ * payBatch call, and hands each caller its own transaction ID or error.
+ *
+ * A caller waits at most batchTimeout. Anything payBatch throws, or a malformed result, fails only
+ * that batch; the dispatcher keeps running until close(), which fails every request not yet submitted.
+ */
+public class CoalescingStrategy implements PaymentStrategy, AutoCloseable {
+    private record Pending(BatchPaymentStrategy.Item item, CompletableFuture<String> result) {}
+
+    private static final Pending CLOSE = new Pending(null, new CompletableFuture<>());
+
+    private final BatchPaymentStrategy delegate;
+    private final int maxBatch;
+    private final long windowNanos;
+    private final long timeoutNanos;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();   // pay: read, close: write
+    private final Thread dispatcher;
+    private boolean closed;                        // guarded by closeLock
+
+    public CoalescingStrategy(BatchPaymentStrategy delegate) {
+        this.delegate = delegate;
+        this.maxBatch = delegate.maxBatchSize();
+        this.windowNanos = delegate.batchWindow().toNanos();
+        this.timeoutNanos = delegate.batchTimeout().toNanos();
+        if (maxBatch <= 0) throw new IllegalArgumentException("maxBatchSize must be positive");
+        this.dispatcher = Thread.ofPlatform().name("payment-batch-" + delegate.supports()).daemon().start(this::dispatchLoop);
+    }
+
+    @Override
+    public PaymentMethod supports() {
+        return delegate.supports();
+    }
+
+    @Override
+    public String pay(long amt, String ref) {
+        Pending p = new Pending(new BatchPaymentStrategy.Item(amt, ref), new CompletableFuture<>());
+        closeLock.readLock().lock();
+        try {
+            if (closed) throw new PaymentException(PaymentException.Code.UNAVAILABLE, delegate.supports() + " batch dispatcher is closed");
+            queue.add(p);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        try {
+            return p.result().get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new PaymentException(PaymentException.Code.PROVIDER_ERROR, "Batch payment failed", e.getCause());
+        } catch (TimeoutException e) {
+            // Still queued: withdraw it. Otherwise it was submitted and its outcome is unknown.
+            if (queue.remove(p)) throw new PaymentException(PaymentException.Code.TIMEOUT, "Batch payment timed out before submission");
+            throw new PaymentOutcomeUnknownException("Batch payment timed out after submission; outcome unknown");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (queue.remove(p)) throw new PaymentException(PaymentException.Code.UNAVAILABLE, "Interrupted waiting for batch payment");
+            throw new PaymentOutcomeUnknownException("Interrupted after batch submission; outcome unknown");
+        }
+    }
+
+    // Stops the dispatcher after its current payBatch call; requests not yet submitted fail.
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) return;
+            closed = true;
+            queue.add(CLOSE);
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatchLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        boolean stop = false;
+        while (!stop) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + windowNanos;
+                queue.drainTo(batch, maxBatch - batch.size());
+                while (batch.size() < maxBatch && !batch.contains(CLOSE)) {
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) break;
+                    Pending p = queue.poll(left, TimeUnit.NANOSECONDS);
+                    if (p == null) break;
+                    batch.add(p);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop = true;
+            }
+            stop |= batch.contains(CLOSE);
+            if (!stop) submit(batch);
+            else fail(batch, new PaymentException(PaymentException.Code.UNAVAILABLE, delegate.supports() + " batch dispatcher is closed"));
+            batch.clear();
+        }
+        // Only an interrupt gets here with requests still queued; close() enqueues CLOSE after the last.
+        PaymentException closed = new PaymentException(PaymentException.Code.UNAVAILABLE, delegate.supports() + " batch dispatcher stopped");
+        for (Pending p; (p = queue.poll()) != null; ) p.result().completeExceptionally(closed);
+    }
+
+    private void submit(List<Pending> batch) {
+        List<BatchPaymentStrategy.Item> items = new ArrayList<>(batch.size());
+        for (Pending p : batch) items.add(p.item());
+        List<BatchPaymentStrategy.Outcome> outcomes;
+        try {
+            outcomes = delegate.payBatch(items);
+        } catch (RuntimeException e) {
+            fail(batch, e);
+            return;
+        } catch (Throwable t) {
+            // An Error here would otherwise kill the dispatcher and leave every later caller waiting.
+            fail(batch, new PaymentException(PaymentException.Code.PROVIDER_ERROR, "Batch payment failed", t));
+            return;
+        }
+        if (outcomes == null || outcomes.size() != batch.size()) {
+            fail(batch, new PaymentException(PaymentException.Code.PROVIDER_ERROR, "Provider returned " + (outcomes == null ? 0 : outcomes.size())
+                    + " outcomes for " + batch.size() + " payments"));
+            return;
+        }
+        for (BatchPaymentStrategy.Outcome o : outcomes) {
+            if (o == null) {
+                fail(batch, new PaymentException(PaymentException.Code.PROVIDER_ERROR, "Provider returned a null outcome"));
+                return;
+            }
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            BatchPaymentStrategy.Outcome o = outcomes.get(i);
+            if (o.error() != null) batch.get(i).result().completeExceptionally(o.error());
+            else batch.get(i).result().complete(o.transactionId());
+        }
+    }
+
+    private static void fail(List<Pending> batch, RuntimeException e) {
+        for (Pending p : batch) p.result().completeExceptionally(e);
+    }
+}
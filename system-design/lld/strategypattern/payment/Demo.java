@@ -4,16 +4,58 @@ import lld.strategypattern.payment.strategies.CardPaymentStrategy;
 import lld.strategypattern.payment.strategies.PayPalPaymentStrategy;
 import lld.strategypattern.payment.strategies.UpiPaymentStrategy;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class Demo {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         StrategyRegistry reg = new StrategyRegistry(
-                List.of(new CardPaymentStrategy(), new UpiPaymentStrategy(), new PayPalPaymentStrategy()));
-        PaymentService service = new PaymentService(reg);
+                List.of(new CardPaymentStrategy(), new UpiPaymentStrategy(), new PayPalPaymentStrategy()),
+                Map.of(PaymentMethod.PAYPAL, AdmissionPolicy.of(200, 16, Duration.ofMillis(300))));
+        // Journal completed payments; on restart the journal repopulates the idempotency cache
+        Path journalDir = Files.createTempDirectory("payments-journal");
+        IdempotencyCache cache = new IdempotencyCache(Duration.ofHours(24), 100_000);
+        try (PaymentJournal journal = PaymentJournal.open(journalDir, Duration.ofMillis(2), 256, Duration.ofHours(24),
+                     r -> {
+                         if (r.key() != null) cache.put(r.key(), r.fingerprint(), r.response(), r.completedAtMillis());
+                     });
+             PaymentService service = new PaymentService(reg, Map.of(PaymentMethod.PAYPAL, 8), cache, journal)) {
+            System.out.println(service.pay(new PaymentRequest(PaymentMethod.CARD, 1599, "tok_abc", "order-1")).transactionId());
+            System.out.println(service.pay(new PaymentRequest(PaymentMethod.UPI, 2999, "ak@okicici", "order-2")).transactionId());
+            System.out.println(service.pay(new PaymentRequest(PaymentMethod.PAYPAL, 4999, "user@example.com", "order-3")).transactionId());
 
-        System.out.println(service.pay(new PaymentRequest(PaymentMethod.CARD, 1599, "tok_abc")).transactionId());
-        System.out.println(service.pay(new PaymentRequest(PaymentMethod.UPI, 2999, "ak@okicici")).transactionId());
-        System.out.println(service.pay(new PaymentRequest(PaymentMethod.PAYPAL, 4999, "user@example.com")).transactionId());
+            // A retry of the same order returns the original transaction ID...
+            System.out.println(service.pay(new PaymentRequest(PaymentMethod.CARD, 1599, "tok_abc", "order-1")).transactionId());
+            // ...while a second, identical purchase is a new payment
+            System.out.println(service.pay(new PaymentRequest(PaymentMethod.CARD, 1599, "tok_abc", "order-4")).transactionId());
+            // ...and reusing a token for a different payment is refused
+            try {
+                service.pay(new PaymentRequest(PaymentMethod.CARD, 9999, "tok_abc", "order-1"));
+            } catch (PaymentException e) {
+                System.out.println("rejected: " + e.getMessage());
+            }
+
+            List<CompletableFuture<PaymentResponse>> batch = service.payAll(List.of(
+                    new PaymentRequest(PaymentMethod.CARD, 100, "tok_1"),
+                    new PaymentRequest(PaymentMethod.UPI, 200, "bad-upi")));
+            for (CompletableFuture<PaymentResponse> f : batch) {
+                System.out.println(f.handle((r, e) -> r != null ? r.transactionId() : "failed: " + e.getCause().getMessage()).join());
+            }
+        }
+
+        System.out.println(reg.metrics().snapshot(PaymentMethod.UPI));
+        reg.close();                               // stops the UPI batch dispatcher
+
+        IdempotencyCache restored = new IdempotencyCache(Duration.ofHours(24), 100_000);
+        System.out.println("recovered " + PaymentJournal.recover(journalDir, restored) + " payments");
+        try (var segments = Files.list(journalDir)) {
+            for (Path p : segments.toList()) Files.delete(p);
+        }
+        Files.delete(journalDir);
     }
-}
\ No newline at end of file
+}
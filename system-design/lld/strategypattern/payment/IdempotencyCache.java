@@ -0,0 +1,159 @@
+package lld.strategypattern.payment;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates payments by the caller's idempotency token ({@link IdempotencyKey}).
+ *
+ * - Single flight: while a payment is in flight, duplicates wait for it and share its outcome.
+ * - Completed responses are cached for ttl, and the oldest are evicted beyond maxEntries.
+ * - Each entry remembers what was paid (method, amount, reference); reusing a token for a different
+ *   payment is rejected rather than answered with another payment's transaction ID.
+ * - Failures are not cached, so the next retry calls the provider again, except
+ *   PaymentOutcomeUnknownException: the provider may have charged, so it is cached like a response.
+ */
+public class IdempotencyCache {
+    // What a token was used for.
+    public record Fingerprint(PaymentMethod method, long amountMinor, String reference) {
+        public static Fingerprint of(PaymentRequest req) {
+            return new Fingerprint(req.method(), req.amountMinor(), req.reference());
+        }
+    }
+
+    private static final class Entry {
+        final IdempotencyKey key;
+        final Fingerprint fingerprint;
+        final CompletableFuture<PaymentResponse> result = new CompletableFuture<>();
+        volatile long completedAt;                 // nanoTime; 0 while in flight
+
+        Entry(IdempotencyKey key, Fingerprint fingerprint) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final ConcurrentHashMap<IdempotencyKey, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> completionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger completed = new AtomicInteger();
+
+    public IdempotencyCache(Duration ttl, int maxEntries) {
+        if (ttl.isNegative() || ttl.isZero()) throw new IllegalArgumentException("ttl must be positive");
+        if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries must be positive");
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    public PaymentResponse execute(IdempotencyKey key, Fingerprint fingerprint, Supplier<PaymentResponse> call) {
+        while (true) {
+            Entry e = entries.get(key);
+            if (e != null) {
+                if (isExpired(e, System.nanoTime())) {
+                    entries.remove(key, e);
+                    continue;
+                }
+                if (!e.fingerprint.equals(fingerprint)) {
+                    throw new PaymentException(PaymentException.Code.INVALID_REQUEST, "Idempotency token " + key.token() + " was used for a different payment");
+                }
+                return await(e);
+            }
+            Entry mine = new Entry(key, fingerprint);
+            if (entries.putIfAbsent(key, mine) != null) continue;
+            return run(mine, call);
+        }
+    }
+
+    // Seeds a completed response, e.g. when rebuilding state from a journal at startup.
+    // No-op if the key is already present, so a key never has two entries in the expiry queue.
+    public void put(IdempotencyKey key, Fingerprint fingerprint, PaymentResponse response) {
+        put(key, fingerprint, response, System.currentTimeMillis());
+    }
+
+    // Seeds a response completed at completedAtMillis (epoch millis), keeping only its remaining ttl;
+    // returns false if it has already expired or the key is present. Seed oldest first (journal
+    // order) so the expiry queue stays ordered.
+    public boolean put(IdempotencyKey key, Fingerprint fingerprint, PaymentResponse response, long completedAtMillis) {
+        long ageNanos = Math.max(0, System.currentTimeMillis() - completedAtMillis) * 1_000_000L;
+        if (ageNanos >= ttlNanos) return false;
+        Entry e = new Entry(key, fingerprint);
+        e.result.complete(response);
+        if (entries.putIfAbsent(key, e) != null) return false;
+        markCompleted(e, System.nanoTime() - ageNanos);
+        return true;
+    }
+
+    public PaymentResponse getIfPresent(IdempotencyKey key) {
+        Entry e = entries.get(key);
+        if (e == null || e.completedAt == 0 || isExpired(e, System.nanoTime())) return null;
+        return await(e);
+    }
+
+    public Duration ttl() {
+        return Duration.ofNanos(ttlNanos);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private PaymentResponse run(Entry e, Supplier<PaymentResponse> call) {
+        PaymentResponse r;
+        try {
+            r = call.get();
+        } catch (PaymentOutcomeUnknownException ex) {
+            e.result.completeExceptionally(ex);    // kept: a retry must not charge again
+            markCompleted(e, System.nanoTime());
+            throw ex;
+        } catch (RuntimeException | Error ex) {
+            entries.remove(e.key, e);
+            e.result.completeExceptionally(ex);
+            throw ex;
+        }
+        e.result.complete(r);
+        markCompleted(e, System.nanoTime());
+        return r;
+    }
+
+    private void markCompleted(Entry e, long at) {
+        e.completedAt = at == 0 ? 1 : at;          // 0 is reserved for in flight
+        completionOrder.add(e);
+        completed.incrementAndGet();
+        evict(System.nanoTime());
+    }
+
+    // Completion order is also expiry order (single ttl), so only the queue head needs checking.
+    private void evict(long now) {
+        Entry head;
+        while ((head = completionOrder.peek()) != null
+                && (completed.get() > maxEntries || isExpired(head, now))) {
+            if (completionOrder.remove(head)) {
+                completed.decrementAndGet();
+                entries.remove(head.key, head);
+            }
+        }
+    }
+
+    private boolean isExpired(Entry e, long now) {
+        long at = e.completedAt;
+        return at != 0 && now - at >= ttlNanos;
+    }
+
+    private static PaymentResponse await(Entry e) {
+        try {
+            return e.result.join();
+        } catch (CompletionException ce) {
+            Throwable cause = ce.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw ce;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package lld.strategypattern.payment;
+
+// Caller-supplied token naming one logical payment (e.g. an order or request ID). Retries of that
+// payment reuse the token; a new purchase gets a new one, even with the same instrument and amount.
+public record IdempotencyKey(String token) {
+    public IdempotencyKey {
+        if (token == null || token.isEmpty()) throw new IllegalArgumentException("idempotency token required");
+    }
+
+    // null if the request carries no token (no deduplication)
+    public static IdempotencyKey of(PaymentRequest req) {
+        return req.idempotencyKey() == null ? null : new IdempotencyKey(req.idempotencyKey());
+    }
+}
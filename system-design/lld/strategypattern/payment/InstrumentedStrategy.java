@@ -0,0 +1,45 @@
+package lld.strategypattern.payment;
+
+/**
+ * Records latency, outcome and in-flight count of every call into a strategy. Recording is
+ * LongAdder/atomic-array updates only; a failure is counted under the rejection reason, the
+ * PaymentException code, or (for anything else) the exception's class name, never its message, so the
+ * set of counters stays small and fixed and a failure allocates nothing.
+ */
+public class InstrumentedStrategy implements PaymentStrategy {
+    private final PaymentStrategy delegate;
+    private final PaymentMetrics.MethodMetrics metrics;
+
+    public InstrumentedStrategy(PaymentStrategy delegate, PaymentMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics.of(delegate.supports());
+    }
+
+    @Override
+    public PaymentMethod supports() {
+        return delegate.supports();
+    }
+
+    @Override
+    public String pay(long amt, String ref) {
+        metrics.inFlight.increment();
+        long t0 = System.nanoTime();
+        try {
+            String id = delegate.pay(amt, ref);
+            metrics.successes.increment();
+            return id;
+        } catch (PaymentRejectedException e) {
+            metrics.fail(e.reason().name());
+            throw e;
+        } catch (PaymentException e) {
+            metrics.fail(e.code().name());
+            throw e;
+        } catch (RuntimeException e) {
+            metrics.fail(e.getClass().getSimpleName());            // cached by Class, no allocation
+            throw e;
+        } finally {
+            metrics.latency.record(System.nanoTime() - t0);
+            metrics.inFlight.decrement();
+        }
+    }
+}
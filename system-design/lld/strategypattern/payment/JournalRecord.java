@@ -0,0 +1,22 @@
+package lld.strategypattern.payment;
+
+public record JournalRecord(String transactionId, PaymentMethod method, long amountMinor, String reference,
+                            String idempotencyKey, long completedAtMillis) {
+    public static JournalRecord of(PaymentRequest req, PaymentResponse resp) {
+        return new JournalRecord(resp.transactionId(), resp.method(), resp.amountMinor(), req.reference(),
+                req.idempotencyKey(), System.currentTimeMillis());
+    }
+
+    public PaymentResponse response() {
+        return new PaymentResponse(transactionId, method, amountMinor);
+    }
+
+    public IdempotencyCache.Fingerprint fingerprint() {
+        return new IdempotencyCache.Fingerprint(method, amountMinor, reference);
+    }
+
+    // null if the payment was made without an idempotency token
+    public IdempotencyKey key() {
+        return idempotencyKey == null ? null : new IdempotencyKey(idempotencyKey);
+    }
+}
@@ -1,7 +1,30 @@
 package lld.strategypattern.payment;
 
 public class PaymentException extends RuntimeException {
-    public PaymentException(String msg) {
+    // Why a payment failed; a small fixed set, so metrics can count failures by it.
+    public enum Code {
+        INVALID_REQUEST,      // bad amount or instrument, token reused for another payment, ...
+        REJECTED,             // admission limits (see PaymentRejectedException.Reason)
+        PROVIDER_ERROR,       // the provider call failed or answered malformed
+        TIMEOUT,              // gave up before the request reached the provider
+        UNAVAILABLE,          // shut down or interrupted before the request reached the provider
+        OUTCOME_UNKNOWN,      // the provider may have charged
+        NOT_DURABLE           // charged, but not journaled
+    }
+
+    private final Code code;
+
+    public PaymentException(Code code, String msg) {
         super(msg);
+        this.code = code;
+    }
+
+    public PaymentException(Code code, String msg, Throwable cause) {
+        super(msg, cause);
+        this.code = code;
+    }
+
+    public Code code() {
+        return code;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,410 @@
+package lld.strategypattern.payment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only binary journal of completed payments with group commit.
+ *
+ * Payers encode their record and enqueue it; one writer thread takes everything queued (waiting up to
+ * maxWait for a batch to fill), writes it with one gathering write and one fsync, then completes
+ * every payer's future. Throughput scales with batch size instead of being capped by fsync latency.
+ *
+ * Record layout (little-endian):
+ * <pre>
+ *   int  length of the record body (bytes after the CRC)
+ *   int  CRC32C of the body
+ *   body: byte method ordinal, long amountMinor, long completedAt (epoch millis),
+ *         short txId length + UTF-8 bytes, short reference length (-1 = null) + UTF-8 bytes,
+ *         short idempotency key length (-1 = null) + UTF-8 bytes
+ * </pre>
+ * The journal is a directory of segments (segment-0000000001.log, ...). Nothing is ever rewritten or
+ * deleted: once the active segment reaches segmentBytes the writer switches to the next one, which
+ * a maintenance thread has already created and made durable, so rotation costs the writer a channel
+ * swap. Sealed segments are the archive; moving them elsewhere is left to operations.
+ *
+ * The retention (the idempotency TTL) only limits replay: records older than it are not handed to
+ * onRecord, and sealed segments last modified before the cutoff are not even read.
+ *
+ * Recovery maps each segment and scans it. Only a torn tail of the last segment, i.e. a last record
+ * cut short by a crash (it runs to end of file, or everything after it is zero), is truncated. Any
+ * other damage means acknowledged payments would be lost, so open() and recover() throw instead.
+ */
+public class PaymentJournal implements AutoCloseable {
+    private static final int HEADER = 8;
+    private static final int MAX_FIELD = Short.MAX_VALUE;
+    private static final int MIN_BODY = 1 + 8 + 8 + 2 + 2 + 2;
+    private static final int MAX_BODY = 1 + 8 + 8 + 3 * (2 + MAX_FIELD);
+    private static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+
+    private record Pending(ByteBuffer data, CompletableFuture<Void> done) {}
+
+    private static final Pending CLOSE = new Pending(ByteBuffer.allocate(0), new CompletableFuture<>());
+
+    private final Path dir;
+    private final long segmentBytes;
+    private final long maxWaitNanos;
+    private final int maxBatch;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();   // append: read, close: write
+    private final ExecutorService maintenance = Executors.newSingleThreadExecutor(
+            r -> Thread.ofPlatform().name("payment-journal-maintenance").daemon().unstarted(r));
+    private final Thread writer;
+    private FileChannel channel;                   // active segment, owned by the writer thread once started
+    private long seq;                              // active segment number
+    private CompletableFuture<FileChannel> next;   // segment seq + 1, prepared by maintenance
+    private boolean closed;                        // guarded by closeLock
+
+    private PaymentJournal(Path dir, long seq, FileChannel channel, Duration maxWait, int maxBatch, long segmentBytes) {
+        this.dir = dir;
+        this.seq = seq;
+        this.channel = channel;
+        this.segmentBytes = segmentBytes;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.maxBatch = maxBatch;
+        this.next = prepare(seq + 1);
+        this.writer = Thread.ofPlatform().name("payment-journal").daemon().start(this::writeLoop);
+    }
+
+    public static PaymentJournal open(Path dir, Duration maxWait, int maxBatch, Duration retention,
+                                      Consumer<JournalRecord> onRecord) throws IOException {
+        return open(dir, maxWait, maxBatch, retention, DEFAULT_SEGMENT_BYTES, onRecord);
+    }
+
+    // Opens (or creates) the journal directory, truncates a torn tail of the last segment, and replays
+    // records completed within retention into onRecord (oldest first).
+    public static PaymentJournal open(Path dir, Duration maxWait, int maxBatch, Duration retention,
+                                      long segmentBytes, Consumer<JournalRecord> onRecord) throws IOException {
+        if (maxBatch <= 0) throw new IllegalArgumentException("maxBatch must be positive");
+        if (segmentBytes <= 0) throw new IllegalArgumentException("segmentBytes must be positive");
+        if (retention.isNegative() || retention.isZero()) throw new IllegalArgumentException("retention must be positive");
+        Files.createDirectories(dir);
+        long cutoff = System.currentTimeMillis() - retention.toMillis();
+        List<Long> segments = segments(dir);
+        // A crash can leave the pre-created next segment behind; the last non-empty one is the active one.
+        while (segments.size() > 1 && Files.size(segment(dir, segments.get(segments.size() - 1))) == 0) {
+            Files.delete(segment(dir, segments.remove(segments.size() - 1)));
+        }
+        long active = segments.isEmpty() ? 1 : segments.get(segments.size() - 1);
+        Consumer<JournalRecord> live = r -> {
+            if (r.completedAtMillis() >= cutoff) onRecord.accept(r);
+        };
+        for (int i = 0; i < segments.size() - 1; i++) replaySealed(dir, segments.get(i), cutoff, live);
+        FileChannel ch = FileChannel.open(segment(dir, active), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            ch.truncate(scan(ch, live));
+            ch.position(ch.size());
+            if (segments.isEmpty()) syncDirectory(dir);
+            return new PaymentJournal(dir, active, ch, maxWait, maxBatch, segmentBytes);
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    // Rebuilds idempotency state from a journal without opening it for writing; records older than the
+    // cache's ttl are skipped and the rest keep their remaining TTL. Returns the number restored.
+    public static long recover(Path dir, IdempotencyCache cache) throws IOException {
+        long cutoff = System.currentTimeMillis() - cache.ttl().toMillis();
+        long[] n = new long[1];
+        Consumer<JournalRecord> restore = r -> {
+            if (r.key() != null && cache.put(r.key(), r.fingerprint(), r.response(), r.completedAtMillis())) n[0]++;
+        };
+        List<Long> segments = segments(dir);
+        for (int i = 0; i < segments.size(); i++) {
+            if (i < segments.size() - 1) {
+                replaySealed(dir, segments.get(i), cutoff, restore);
+            } else {
+                try (FileChannel ch = FileChannel.open(segment(dir, segments.get(i)), StandardOpenOption.READ)) {
+                    scan(ch, restore);                 // a torn tail is ignored, not cut: read-only
+                }
+            }
+        }
+        return n[0];
+    }
+
+    // Completes once the record is on disk (fsynced as part of a group commit).
+    public CompletableFuture<Void> append(JournalRecord r) {
+        ByteBuffer data = encode(r);
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        closeLock.readLock().lock();
+        try {
+            // Checked and enqueued under the lock, so the record is always ahead of CLOSE in the queue.
+            if (closed) throw new IllegalStateException("journal is closed");
+            queue.add(new Pending(data, done));
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        return done;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) return;
+            closed = true;
+            queue.add(CLOSE);                      // no interrupt: it would close the channel mid-write
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        maintenance.shutdown();
+        try {
+            maintenance.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (next.isDone() && !next.isCompletedExceptionally()) {
+            next.join().close();
+            Files.deleteIfExists(segment(dir, seq + 1));   // empty; open() would drop it anyway
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        boolean stop = false;
+        while (!stop) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                queue.drainTo(batch, maxBatch - batch.size());
+                while (batch.size() < maxBatch && !batch.contains(CLOSE)) {
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) break;
+                    Pending p = queue.poll(left, TimeUnit.NANOSECONDS);
+                    if (p == null) break;
+                    batch.add(p);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop = true;
+            }
+            stop |= batch.remove(CLOSE);
+            if (!batch.isEmpty()) flush(batch);
+            batch.clear();
+            if (!stop) maybeRotate();
+        }
+        // Only reachable with leftovers if the writer was interrupted: fail them rather than hang payers.
+        for (Pending p; (p = queue.poll()) != null; ) {
+            p.done().completeExceptionally(new IllegalStateException("journal is closed"));
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        ByteBuffer[] bufs = new ByteBuffer[batch.size()];
+        for (int i = 0; i < bufs.length; i++) bufs[i] = batch.get(i).data();
+        try {
+            long remaining = 0;
+            for (ByteBuffer b : bufs) remaining += b.remaining();
+            while (remaining > 0) remaining -= channel.write(bufs);
+            channel.force(false);
+            for (Pending p : batch) p.done().complete(null);
+        } catch (IOException e) {
+            for (Pending p : batch) p.done().completeExceptionally(new UncheckedIOException(e));
+        }
+    }
+
+    // Everything written so far is already fsynced, so sealing is just switching to the next segment.
+    // Only a segment that is ready is taken; otherwise the writer keeps appending and checks again.
+    private void maybeRotate() {
+        try {
+            if (channel.size() < segmentBytes || !next.isDone()) return;
+        } catch (IOException e) {
+            return;
+        }
+        if (next.isCompletedExceptionally()) {
+            next = prepare(seq + 1);                 // retry in the background
+            return;
+        }
+        FileChannel sealed = channel;
+        channel = next.join();
+        seq++;
+        next = prepare(seq + 1);
+        maintenance.execute(() -> {
+            try {
+                sealed.close();
+            } catch (IOException ignored) {
+            }
+        });
+    }
+
+    // Creates segment n and makes its directory entry durable, off the writer thread.
+    private CompletableFuture<FileChannel> prepare(long n) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                FileChannel ch = FileChannel.open(segment(dir, n), StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+                syncDirectory(dir);
+                return ch;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, maintenance);
+    }
+
+    // Sealed segments were fsynced in full before rotation, so anything short of a clean scan is damage.
+    private static void replaySealed(Path dir, long n, long cutoff, Consumer<JournalRecord> onRecord)
+            throws IOException {
+        Path p = segment(dir, n);
+        if (Files.getLastModifiedTime(p).toMillis() < cutoff) return;   // every record in it is older
+        try (FileChannel ch = FileChannel.open(p, StandardOpenOption.READ)) {
+            long end = scan(ch, onRecord);
+            if (end != ch.size()) throw new IOException("journal segment " + p + " corrupt at offset " + end);
+        } catch (IOException e) {
+            if (e.getMessage() != null && e.getMessage().startsWith("journal segment")) throw e;
+            throw new IOException("journal segment " + p + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static List<Long> segments(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) return new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(f -> f.getFileName().toString())
+                    .filter(f -> f.matches("segment-\\d{10}\\.log"))
+                    .map(f -> Long.parseLong(f.substring(8, 18)))
+                    .sorted()
+                    .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        }
+    }
+
+    private static Path segment(Path dir, long n) {
+        return dir.resolve(String.format("segment-%010d.log", n));
+    }
+
+    // Makes a new file's directory entry durable; not supported on every platform, where it is a no-op.
+    private static void syncDirectory(Path dir) {
+        try (FileChannel d = FileChannel.open(dir, StandardOpenOption.READ)) {
+            d.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+
+    static ByteBuffer encode(JournalRecord r) {
+        byte[] tx = r.transactionId().getBytes(StandardCharsets.UTF_8);
+        byte[] ref = utf8(r.reference());
+        byte[] key = utf8(r.idempotencyKey());
+        if (tx.length > MAX_FIELD || length(ref) > MAX_FIELD || length(key) > MAX_FIELD) {
+            throw new PaymentException(PaymentException.Code.INVALID_REQUEST, "Journal field too long");
+        }
+        int body = 1 + 8 + 8 + 2 + tx.length + 2 + length(ref) + 2 + length(key);
+        ByteBuffer b = ByteBuffer.allocate(HEADER + body).order(ByteOrder.LITTLE_ENDIAN);
+        b.putInt(body).putInt(0);
+        b.put((byte) r.method().ordinal()).putLong(r.amountMinor()).putLong(r.completedAtMillis());
+        b.putShort((short) tx.length).put(tx);
+        putString(b, ref);
+        putString(b, key);
+        CRC32C crc = new CRC32C();
+        crc.update(b.array(), HEADER, body);
+        b.putInt(4, (int) crc.getValue());
+        return b.flip();
+    }
+
+    // Scans records from the start of the file; returns the offset just past the last valid one.
+    // Throws if an invalid record is followed by data that is not a torn tail.
+    private static long scan(FileChannel ch, Consumer<JournalRecord> onRecord) throws IOException {
+        long size = ch.size();
+        long pos = 0;
+        PaymentMethod[] methods = PaymentMethod.values();
+        CRC32C crc = new CRC32C();
+        while (pos < size) {
+            MappedByteBuffer m = ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(size - pos, Integer.MAX_VALUE));
+            m.order(ByteOrder.LITTLE_ENDIAN);
+            int p = 0, limit = m.limit();
+            while (true) {
+                long at = pos + p;
+                if (size - at < HEADER) return at;                       // partial header (or clean end)
+                if (limit - p < HEADER) break;                           // header crosses the mapping
+                int body = m.getInt(p);
+                if (body < MIN_BODY || body > MAX_BODY) return tornTail(ch, at, size);
+                if (at + HEADER + body > size) return at;                // body cut off at end of file
+                if (limit - p - HEADER < body) break;                    // body crosses the mapping
+
+                crc.reset();
+                crc.update(m.slice(p + HEADER, body));
+                int method = m.get(p + HEADER);
+                if ((int) crc.getValue() != m.getInt(p + 4) || method < 0 || method >= methods.length) {
+                    if (at + HEADER + body == size) return at;           // last record, torn
+                    return tornTail(ch, at, size);
+                }
+
+                ByteBuffer rb = m.slice(p + HEADER + 1, body - 1).order(ByteOrder.LITTLE_ENDIAN);
+                long amount = rb.getLong();
+                long completedAt = rb.getLong();
+                String tx = readString(rb);
+                String ref = readString(rb);
+                String key = readString(rb);
+                onRecord.accept(new JournalRecord(tx, methods[method], amount, ref, key, completedAt));
+                p += HEADER + body;
+            }
+            pos += p;
+        }
+        return pos;
+    }
+
+    // A crash can leave a zero-filled tail (size extended before data reached disk); that is torn and
+    // safe to cut. Anything else after a bad record is corruption of acknowledged data.
+    private static long tornTail(FileChannel ch, long at, long size) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+        for (long p = at; p < size; ) {
+            buf.clear();
+            int n = ch.read(buf, p);
+            if (n <= 0) break;
+            for (int i = 0; i < n; i++) {
+                if (buf.get(i) != 0) throw new IOException("journal corrupt at offset " + at + " with records after it");
+            }
+            p += n;
+        }
+        return at;
+    }
+
+    private static byte[] utf8(String s) {
+        return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] b) {
+        return b == null ? 0 : b.length;
+    }
+
+    private static void putString(ByteBuffer b, byte[] s) {
+        b.putShort((short) (s == null ? -1 : s.length));
+        if (s != null) b.put(s);
+    }
+
+    private static String readString(ByteBuffer b) {
+        int len = b.getShort();
+        if (len < 0) return null;
+        byte[] bytes = new byte[len];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,112 @@
+package lld.strategypattern.payment;
+
+import common.LatencyHistogram;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import javax.management.ObjectName;
+
+/**
+ * Per-method latency, outcome and in-flight metrics recorded by {@link InstrumentedStrategy}.
+ * Exposed via {@link #snapshot()} and, after {@link #registerMBean}, over JMX.
+ */
+public class PaymentMetrics implements PaymentMetricsMXBean {
+
+    public record MethodSnapshot(PaymentMethod method, long calls, long successes, long inFlight,
+                                 long p50Nanos, long p99Nanos, long p999Nanos, Map<String, Long> failures) {
+    }
+
+    static final class MethodMetrics {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder successes = new LongAdder();
+        final LongAdder inFlight = new LongAdder();
+        final ConcurrentHashMap<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+        void fail(String reason) {
+            LongAdder c = failures.get(reason);
+            if (c == null) c = failures.computeIfAbsent(reason, r -> new LongAdder());
+            c.increment();
+        }
+    }
+
+    private final Map<PaymentMethod, MethodMetrics> byMethod = new EnumMap<>(PaymentMethod.class);
+
+    public PaymentMetrics() {
+        for (PaymentMethod m : PaymentMethod.values()) byMethod.put(m, new MethodMetrics());
+    }
+
+    MethodMetrics of(PaymentMethod m) {
+        return byMethod.get(m);
+    }
+
+    public MethodSnapshot snapshot(PaymentMethod m) {
+        MethodMetrics mm = byMethod.get(m);
+        Map<String, Long> failures = new LinkedHashMap<>();
+        mm.failures.forEach((r, c) -> failures.put(r, c.sum()));
+        return new MethodSnapshot(m, mm.latency.count(), mm.successes.sum(), mm.inFlight.sum(),
+                mm.latency.percentile(50), mm.latency.percentile(99), mm.latency.percentile(99.9), failures);
+    }
+
+    public Map<PaymentMethod, MethodSnapshot> snapshot() {
+        Map<PaymentMethod, MethodSnapshot> out = new EnumMap<>(PaymentMethod.class);
+        for (PaymentMethod m : PaymentMethod.values()) out.put(m, snapshot(m));
+        return out;
+    }
+
+    public void registerMBean(String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(this, new ObjectName("lld.strategypattern.payment:type=PaymentMetrics,name=" + name));
+        } catch (Exception e) {
+            throw new IllegalStateException("cannot register payment metrics MBean", e);
+        }
+    }
+
+    @Override
+    public Map<String, Long> getCalls() {
+        return perMethod(mm -> mm.latency.count());
+    }
+
+    @Override
+    public Map<String, Long> getSuccesses() {
+        return perMethod(mm -> mm.successes.sum());
+    }
+
+    @Override
+    public Map<String, Long> getInFlight() {
+        return perMethod(mm -> mm.inFlight.sum());
+    }
+
+    @Override
+    public Map<String, Long> getP50Nanos() {
+        return perMethod(mm -> mm.latency.percentile(50));
+    }
+
+    @Override
+    public Map<String, Long> getP99Nanos() {
+        return perMethod(mm -> mm.latency.percentile(99));
+    }
+
+    @Override
+    public Map<String, Long> getP999Nanos() {
+        return perMethod(mm -> mm.latency.percentile(99.9));
+    }
+
+    @Override
+    public Map<String, Long> getFailures() {
+        Map<String, Long> out = new LinkedHashMap<>();
+        byMethod.forEach((m, mm) -> mm.failures.forEach((r, c) -> out.put(m + ":" + r, c.sum())));
+        return out;
+    }
+
+    private Map<String, Long> perMethod(ToLongFunction<MethodMetrics> f) {
+        Map<String, Long> out = new LinkedHashMap<>();
+        byMethod.forEach((m, mm) -> out.put(m.name(), f.applyAsLong(mm)));
+        return out;
+    }
+}
@@ -0,0 +1,21 @@
+package lld.strategypattern.payment;
+
+import java.util.Map;
+
+// JMX view of PaymentMetrics; keys of every map are PaymentMethod names.
+public interface PaymentMetricsMXBean {
+    Map<String, Long> getCalls();
+
+    Map<String, Long> getSuccesses();
+
+    Map<String, Long> getInFlight();
+
+    Map<String, Long> getP50Nanos();
+
+    Map<String, Long> getP99Nanos();
+
+    Map<String, Long> getP999Nanos();
+
+    // "METHOD:reason" -> count
+    Map<String, Long> getFailures();
+}
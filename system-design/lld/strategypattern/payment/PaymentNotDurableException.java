@@ -0,0 +1,16 @@
+package lld.strategypattern.payment;
+
+// The provider charged, but the response could not be journaled. The payment stands: retries with the
+// same token get response() from the idempotency cache instead of charging again.
+public class PaymentNotDurableException extends PaymentException {
+    private final PaymentResponse response;
+
+    public PaymentNotDurableException(PaymentResponse response, Throwable cause) {
+        super(Code.NOT_DURABLE, "Payment " + response.transactionId() + " succeeded but was not journaled", cause);
+        this.response = response;
+    }
+
+    public PaymentResponse response() {
+        return response;
+    }
+}
@@ -0,0 +1,9 @@
+package lld.strategypattern.payment;
+
+// The provider may or may not have charged (e.g. a timeout after submission). Not safe to retry:
+// IdempotencyCache keeps this outcome for the token, so retries get it too until it is reconciled.
+public class PaymentOutcomeUnknownException extends PaymentException {
+    public PaymentOutcomeUnknownException(String msg) {
+        super(Code.OUTCOME_UNKNOWN, msg);
+    }
+}
@@ -0,0 +1,23 @@
+package lld.strategypattern.payment;
+
+// Thrown instead of queuing when a payment method is over its admission limits; safe to retry later.
+public class PaymentRejectedException extends PaymentException {
+    public enum Reason {RATE_LIMITED, CONCURRENCY_LIMITED}
+
+    private final PaymentMethod method;
+    private final Reason reason;
+
+    public PaymentRejectedException(PaymentMethod method, Reason reason) {
+        super(Code.REJECTED, method + " rejected: " + reason);
+        this.method = method;
+        this.reason = reason;
+    }
+
+    public PaymentMethod method() {
+        return method;
+    }
+
+    public Reason reason() {
+        return reason;
+    }
+}
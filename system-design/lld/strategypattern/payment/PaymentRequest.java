@@ -1,4 +1,9 @@
 package lld.strategypattern.payment;
 
-public record PaymentRequest(PaymentMethod method, long amountMinor, String reference) {
+// idempotencyKey: caller's token for this payment; retries with the same token are deduplicated.
+public record PaymentRequest(PaymentMethod method, long amountMinor, String reference, String idempotencyKey) {
+    // No token: every call is a new payment.
+    public PaymentRequest(PaymentMethod method, long amountMinor, String reference) {
+        this(method, amountMinor, reference, null);
+    }
 }
\ No newline at end of file
@@ -1,15 +1,119 @@
 package lld.strategypattern.payment;
 
-public class PaymentService {
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+public class PaymentService implements AutoCloseable {
+    public static final int DEFAULT_MAX_CONCURRENT = 64;
+    public static final Duration DEFAULT_IDEMPOTENCY_TTL = Duration.ofHours(24);
+    public static final int DEFAULT_IDEMPOTENCY_ENTRIES = 100_000;
+
     private final StrategyRegistry reg;
+    private final IdempotencyCache idempotency;
+    private final PaymentJournal journal;          // null: responses are not journaled
+    private final Map<PaymentMethod, Bulkhead> bulkheads = new EnumMap<>(PaymentMethod.class);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
 
     public PaymentService(StrategyRegistry r) {
+        this(r, Map.of());
+    }
+
+    // Per-method concurrency limits; methods not listed get DEFAULT_MAX_CONCURRENT.
+    public PaymentService(StrategyRegistry r, Map<PaymentMethod, Integer> maxConcurrent) {
+        this(r, maxConcurrent, new IdempotencyCache(DEFAULT_IDEMPOTENCY_TTL, DEFAULT_IDEMPOTENCY_ENTRIES));
+    }
+
+    public PaymentService(StrategyRegistry r, Map<PaymentMethod, Integer> maxConcurrent, IdempotencyCache idempotency) {
+        this(r, maxConcurrent, idempotency, null);
+    }
+
+    // With a journal, pay returns only after the response is durable (group-committed).
+    public PaymentService(StrategyRegistry r, Map<PaymentMethod, Integer> maxConcurrent, IdempotencyCache idempotency,
+                          PaymentJournal journal) {
         this.reg = r;
+        this.idempotency = idempotency;
+        this.journal = journal;
+        for (PaymentMethod m : PaymentMethod.values()) {
+            bulkheads.put(m, new Bulkhead(m, maxConcurrent.getOrDefault(m, DEFAULT_MAX_CONCURRENT)));
+        }
     }
 
+    // Retries with the same idempotency token share one provider call and one transaction ID; reusing a
+    // token for a different payment fails. Requests without a token are always sent to the provider.
+    // If the charge succeeded but journaling failed, throws PaymentNotDurableException carrying the
+    // response, which stays cached for retries.
     public PaymentResponse pay(PaymentRequest req) {
+        IdempotencyKey key = IdempotencyKey.of(req);
+        RuntimeException[] journalFailure = new RuntimeException[1];
+        Supplier<PaymentResponse> call = () -> {
+            PaymentResponse resp = charge(req);
+            journalFailure[0] = journal(req, resp);
+            return resp;
+        };
+        PaymentResponse resp = key == null ? call.get()
+                : idempotency.execute(key, IdempotencyCache.Fingerprint.of(req), call);
+        if (journalFailure[0] != null) throw new PaymentNotDurableException(resp, journalFailure[0]);
+        return resp;
+    }
+
+    private PaymentResponse charge(PaymentRequest req) {
         PaymentStrategy s = reg.resolve(req.method());
-        String id = s.pay(req.amountMinor(), req.reference());
-        return new PaymentResponse(id, req.method(), req.amountMinor());
+        Bulkhead b = bulkheads.get(req.method());
+        PaymentResponse resp;
+        if (!b.tryAcquire()) throw new PaymentRejectedException(req.method(), PaymentRejectedException.Reason.CONCURRENCY_LIMITED);
+        try {
+            String id = s.pay(req.amountMinor(), req.reference());
+            resp = new PaymentResponse(id, req.method(), req.amountMinor());
+        } finally {
+            b.release();
+        }
+        return resp;
+    }
+
+    // Returns the failure instead of throwing it: the charge has happened and must stay recorded as such.
+    private RuntimeException journal(PaymentRequest req, PaymentResponse resp) {
+        if (journal == null) return null;
+        try {
+            journal.append(JournalRecord.of(req, resp)).join();
+            return null;
+        } catch (CompletionException e) {
+            return e.getCause() instanceof RuntimeException re ? re : e;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    // Runs pay on a virtual thread; over the bulkhead or admission limits the future fails with
+    // PaymentRejectedException instead of waiting.
+    public CompletableFuture<PaymentResponse> payAsync(PaymentRequest req) {
+        return CompletableFuture.supplyAsync(() -> pay(req), executor);
+    }
+
+    // One future per request, in request order; each completes (or fails) independently.
+    public List<CompletableFuture<PaymentResponse>> payAll(List<PaymentRequest> reqs) {
+        List<CompletableFuture<PaymentResponse>> out = new ArrayList<>(reqs.size());
+        for (PaymentRequest r : reqs) out.add(payAsync(r));
+        return out;
+    }
+
+    public IdempotencyCache idempotency() {
+        return idempotency;
+    }
+
+    public Bulkhead bulkhead(PaymentMethod m) {
+        return bulkheads.get(m);
+    }
+
+    @Override
+    public void close() {
+        executor.close();
     }
-}
\ No newline at end of file
+}
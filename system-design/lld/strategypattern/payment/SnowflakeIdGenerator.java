@@ -0,0 +1,53 @@
+package lld.strategypattern.payment;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-ordered 64-bit IDs: 41 bits of milliseconds since EPOCH_MILLIS | 10 bits node | 12 bits sequence.
+ *
+ * Lock-free: the (timestamp, sequence) pair lives in one AtomicLong advanced with CAS. When the
+ * 4096 IDs of a millisecond run out, or the clock steps backwards, the timestamp is moved forward
+ * logically instead of spinning, so IDs stay unique and increasing. nextId allocates nothing.
+ */
+public final class SnowflakeIdGenerator implements TransactionIdGenerator {
+    public static final long EPOCH_MILLIS = 1_704_067_200_000L;   // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQ_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private final long nodeBits;
+    private final LongSupplier clock;
+    private final AtomicLong last = new AtomicLong();   // (millis since epoch << SEQ_BITS) | sequence
+
+    public SnowflakeIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    public SnowflakeIdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) throw new IllegalArgumentException("nodeId must be in [0, " + MAX_NODE_ID + "]");
+        this.nodeBits = (long) nodeId << SEQ_BITS;
+        this.clock = clock;
+    }
+
+    @Override
+    public long nextId() {
+        long now = (clock.getAsLong() - EPOCH_MILLIS) << SEQ_BITS;
+        long prev, next;
+        do {
+            prev = last.get();
+            next = now > prev ? now : prev + 1;   // same ms (or clock behind): bump sequence, carry into ms
+        } while (!last.compareAndSet(prev, next));
+        long millis = next >>> SEQ_BITS;
+        long seq = next & ((1L << SEQ_BITS) - 1);
+        return (millis << (NODE_BITS + SEQ_BITS)) | nodeBits | seq;
+    }
+
+    public static long timestampMillis(long id) {
+        return (id >>> (NODE_BITS + SEQ_BITS)) + EPOCH_MILLIS;
+    }
+
+    public static int nodeId(long id) {
+        return (int) (id >>> SEQ_BITS) & MAX_NODE_ID;
+    }
+}
@@ -2,14 +2,48 @@ package lld.strategypattern.payment;
 
 import java.util.*;
 
-public class StrategyRegistry {
+public class StrategyRegistry implements AutoCloseable {
     private final Map<PaymentMethod, PaymentStrategy> map = new EnumMap<>(PaymentMethod.class);
+    private final List<CoalescingStrategy> coalescers = new ArrayList<>();
+    private final PaymentMetrics metrics;
 
     public StrategyRegistry(List<PaymentStrategy> s) {
-        s.forEach(x -> map.put(x.supports(), x));
+        this(s, Map.of());
+    }
+
+    public StrategyRegistry(List<PaymentStrategy> s, Map<PaymentMethod, AdmissionPolicy> policies) {
+        this(s, policies, new PaymentMetrics());
+    }
+
+    // Every strategy is instrumented; strategies whose method has a policy are also wrapped in
+    // admission control (rate + adaptive concurrency), inside the instrumentation so rejections are counted.
+    // Batch-capable strategies get a coalescing stage innermost, so single payments are sent as batches.
+    public StrategyRegistry(List<PaymentStrategy> s, Map<PaymentMethod, AdmissionPolicy> policies, PaymentMetrics metrics) {
+        this.metrics = metrics;
+        s.forEach(x -> {
+            AdmissionPolicy p = policies.get(x.supports());
+            PaymentStrategy base = x;
+            if (x instanceof BatchPaymentStrategy b) {
+                CoalescingStrategy c = new CoalescingStrategy(b);
+                coalescers.add(c);
+                base = c;
+            }
+            PaymentStrategy admitted = p == null ? base : new AdmissionControlledStrategy(base, p);
+            map.put(x.supports(), new InstrumentedStrategy(admitted, metrics));
+        });
     }
 
     public PaymentStrategy resolve(PaymentMethod m) {
         return map.get(m);
     }
-}
\ No newline at end of file
+
+    public PaymentMetrics metrics() {
+        return metrics;
+    }
+
+    // Stops the batch dispatchers; payments to batch-capable methods fail after this.
+    @Override
+    public void close() {
+        coalescers.forEach(CoalescingStrategy::close);
+    }
+}
@@ -0,0 +1,28 @@
+package lld.strategypattern.payment;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in GCRA form: one AtomicLong holds the theoretical arrival time of the
+ * next token; a call is admitted if that time is at most burst intervals in the future.
+ */
+public class TokenBucket {
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong tat = new AtomicLong(System.nanoTime());
+
+    public TokenBucket(double ratePerSecond, int burst) {
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.toleranceNanos = intervalNanos * (burst - 1L);
+    }
+
+    public boolean tryAcquire() {
+        long now = System.nanoTime();
+        while (true) {
+            long t = tat.get();
+            long start = t - now > 0 ? t : now;
+            if (start - now > toleranceNanos) return false;
+            if (tat.compareAndSet(t, start + intervalNanos)) return true;
+        }
+    }
+}
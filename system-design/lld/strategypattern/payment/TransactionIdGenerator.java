@@ -0,0 +1,29 @@
+package lld.strategypattern.payment;
+
+public interface TransactionIdGenerator {
+    long nextId();
+
+    // prefix + "-" + fixed-width Crockford base-32 of id; lexicographic order == numeric order.
+    default String next(String prefix) {
+        return Base32.format(prefix, nextId());
+    }
+
+    final class Base32 {
+        private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+        static final int WIDTH = 13;                  // ceil(64 / 5)
+
+        private Base32() {}
+
+        public static String format(String prefix, long id) {
+            int p = prefix.length();
+            char[] out = new char[p + 1 + WIDTH];
+            prefix.getChars(0, p, out, 0);
+            out[p] = '-';
+            for (int i = out.length - 1; i > p; i--) {
+                out[i] = ALPHABET[(int) (id & 31)];
+                id >>>= 5;
+            }
+            return new String(out);
+        }
+    }
+}
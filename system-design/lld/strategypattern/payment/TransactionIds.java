@@ -0,0 +1,12 @@
+package lld.strategypattern.payment;
+
+/**
+ * Generator shared by the built-in strategies. The node ID comes from the "payment.nodeId" system
+ * property (default 0) and must be unique per running instance.
+ */
+public final class TransactionIds {
+    public static final TransactionIdGenerator DEFAULT =
+            new SnowflakeIdGenerator(Integer.getInteger("payment.nodeId", 0));
+
+    private TransactionIds() {}
+}
@@ -3,10 +3,20 @@ package lld.strategypattern.payment.strategies;
 import lld.strategypattern.payment.PaymentException;
 import lld.strategypattern.payment.PaymentMethod;
 import lld.strategypattern.payment.PaymentStrategy;
-
-import java.util.UUID;
+import lld.strategypattern.payment.TransactionIdGenerator;
+import lld.strategypattern.payment.TransactionIds;
 
 public final class CardPaymentStrategy implements PaymentStrategy {
+    private final TransactionIdGenerator ids;
+
+    public CardPaymentStrategy() {
+        this(TransactionIds.DEFAULT);
+    }
+
+    public CardPaymentStrategy(TransactionIdGenerator ids) {
+        this.ids = ids;
+    }
+
     @Override
     public PaymentMethod supports() {
         return PaymentMethod.CARD;
@@ -14,8 +24,8 @@ public final class CardPaymentStrategy implements PaymentStrategy {
 
     @Override
     public String pay(long amount, String tokenRef) {
-        if (amount <= 0) throw new PaymentException("Amount must be positive");
-        if (tokenRef == null || tokenRef.isBlank()) throw new PaymentException("Missing card token");
-        return "CC-" + UUID.randomUUID();
+        if (amount <= 0) throw new PaymentException(PaymentException.Code.INVALID_REQUEST, "Amount must be positive");
+        if (tokenRef == null || tokenRef.isBlank()) throw new PaymentException(PaymentException.Code.INVALID_REQUEST, "Missing card token");
+        return ids.next("CC");
     }
 }
\ No newline at end of file
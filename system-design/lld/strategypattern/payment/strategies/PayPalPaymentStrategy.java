@@ -3,10 +3,20 @@ package lld.strategypattern.payment.strategies;
 import lld.strategypattern.payment.PaymentException;
 import lld.strategypattern.payment.PaymentMethod;
 import lld.strategypattern.payment.PaymentStrategy;
-
-import java.util.UUID;
+import lld.strategypattern.payment.TransactionIdGenerator;
+import lld.strategypattern.payment.TransactionIds;
 
 public class PayPalPaymentStrategy implements PaymentStrategy {
+    private final TransactionIdGenerator ids;
+
+    public PayPalPaymentStrategy() {
+        this(TransactionIds.DEFAULT);
+    }
+
+    public PayPalPaymentStrategy(TransactionIdGenerator ids) {
+        this.ids = ids;
+    }
+
     @Override
     public PaymentMethod supports() {
         return PaymentMethod.PAYPAL;
@@ -14,8 +24,8 @@ public class PayPalPaymentStrategy implements PaymentStrategy {
 
     @Override
     public String pay(long amount, String email) {
-        if (amount <= 0) throw new PaymentException("Amount must be positive");
-        if (email == null || email.isBlank()) throw new PaymentException("Missing PayPal email");
-        return "PP-" + UUID.randomUUID();
+        if (amount <= 0) throw new PaymentException(PaymentException.Code.INVALID_REQUEST, "Amount must be positive");
+        if (email == null || email.isBlank()) throw new PaymentException(PaymentException.Code.INVALID_REQUEST, "Missing PayPal email");
+        return ids.next("PP");
     }
 }
\ No newline at end of file
@@ -1,12 +1,25 @@
 package lld.strategypattern.payment.strategies;
 
+import lld.strategypattern.payment.BatchPaymentStrategy;
 import lld.strategypattern.payment.PaymentException;
 import lld.strategypattern.payment.PaymentMethod;
-import lld.strategypattern.payment.PaymentStrategy;
+import lld.strategypattern.payment.TransactionIdGenerator;
+import lld.strategypattern.payment.TransactionIds;
 
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.List;
+
+public class UpiPaymentStrategy implements BatchPaymentStrategy {
+    private final TransactionIdGenerator ids;
+
+    public UpiPaymentStrategy() {
+        this(TransactionIds.DEFAULT);
+    }
+
+    public UpiPaymentStrategy(TransactionIdGenerator ids) {
+        this.ids = ids;
+    }
 
-public class UpiPaymentStrategy implements PaymentStrategy {
     @Override
     public PaymentMethod supports() {
         return PaymentMethod.UPI;
@@ -14,8 +27,27 @@ public class UpiPaymentStrategy implements PaymentStrategy {
 
     @Override
     public String pay(long amount, String upiId) {
-        if (amount <= 0) throw new PaymentException("Amount must be positive");
-        if (upiId == null || !upiId.contains("@")) throw new PaymentException("Invalid UPI ID");
-        return "UPI-" + UUID.randomUUID();
+        validate(amount, upiId);
+        return ids.next("UPI");
+    }
+
+    // Bulk collect request: one provider round-trip, per-item validation result.
+    @Override
+    public List<Outcome> payBatch(List<Item> items) {
+        List<Outcome> out = new ArrayList<>(items.size());
+        for (Item it : items) {
+            try {
+                validate(it.amount(), it.ref());
+                out.add(Outcome.success(ids.next("UPI")));
+            } catch (PaymentException e) {
+                out.add(Outcome.failure(e));
+            }
+        }
+        return out;
+    }
+
+    private static void validate(long amount, String upiId) {
+        if (amount <= 0) throw new PaymentException(PaymentException.Code.INVALID_REQUEST, "Amount must be positive");
+        if (upiId == null || !upiId.contains("@")) throw new PaymentException(PaymentException.Code.INVALID_REQUEST, "Invalid UPI ID");
     }
 }